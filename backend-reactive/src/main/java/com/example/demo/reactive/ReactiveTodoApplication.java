@@ -0,0 +1,13 @@
+package com.example.demo.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+
+@SpringBootApplication(exclude = ReactiveUserDetailsServiceAutoConfiguration.class)
+public class ReactiveTodoApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveTodoApplication.class, args);
+    }
+}
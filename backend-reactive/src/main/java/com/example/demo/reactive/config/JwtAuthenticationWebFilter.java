@@ -0,0 +1,57 @@
+package com.example.demo.reactive.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Verifies the same HS512 tokens the servlet backend issues. Verification is pure CPU work, so
+ * it runs inline on the event loop; an invalid token simply leaves the exchange unauthenticated.
+ */
+public class JwtAuthenticationWebFilter implements WebFilter {
+
+    private final String jwtSecret;
+
+    public JwtAuthenticationWebFilter(String jwtSecret) {
+        this.jwtSecret = jwtSecret;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return chain.filter(exchange);
+        }
+        Authentication authentication;
+        try {
+            authentication = authenticate(authHeader.substring(7));
+        } catch (JwtException | IllegalArgumentException e) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+
+    private Authentication authenticate(String token) {
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(jwtSecret)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+        Long userId = claims.get(TokenPrincipal.CLAIM_USER_ID, Long.class);
+        if (userId == null) {
+            throw new IllegalArgumentException("Token has no " + TokenPrincipal.CLAIM_USER_ID + " claim");
+        }
+        String authorities = claims.get(TokenPrincipal.CLAIM_AUTHORITIES, String.class);
+        return UsernamePasswordAuthenticationToken.authenticated(new TokenPrincipal(userId, claims.getSubject()), null,
+                AuthorityUtils.commaSeparatedStringToAuthorityList(authorities == null ? "" : authorities));
+    }
+}
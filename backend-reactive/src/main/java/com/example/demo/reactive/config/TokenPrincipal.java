@@ -0,0 +1,11 @@
+package com.example.demo.reactive.config;
+
+/**
+ * Caller identity taken from the JWT issued by the backend's {@code /api/auth/login}. Only the
+ * claims are trusted; no user row is read to authenticate a request.
+ */
+public record TokenPrincipal(Long id, String email) {
+
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_AUTHORITIES = "auth";
+}
@@ -0,0 +1,141 @@
+package com.example.demo.reactive.controller;
+
+import com.example.demo.dto.CompleteTasksResponseDTO;
+import com.example.demo.dto.CreateTaskDTO;
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.dto.TaskCursor;
+import com.example.demo.reactive.config.TokenPrincipal;
+import com.example.demo.reactive.service.ReactiveTaskService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Same contract as the backend's {@code /api/tasks}: query parameters, {@value #NEXT_CURSOR_HEADER}
+ * paging, ETags and status codes match, so clients can be pointed at either implementation.
+ */
+@RestController
+@RequestMapping("/api/tasks")
+public class ReactiveTaskController {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final CacheControl TASK_LIST_CACHE = CacheControl.noCache().cachePrivate();
+
+    private final ReactiveTaskService taskService;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxBatchSize;
+
+    public ReactiveTaskController(ReactiveTaskService taskService,
+                                  @Value("${tasks.page.default-size}") int defaultPageSize,
+                                  @Value("${tasks.page.max-size}") int maxPageSize,
+                                  @Value("${tasks.batch.max-size}") int maxBatchSize) {
+        this.taskService = taskService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<ResponseTaskDTO>> createTask(@AuthenticationPrincipal TokenPrincipal principal,
+                                                            @RequestBody CreateTaskDTO createTaskDTO) {
+        return taskService.createTask(principal.id(), createTaskDTO).map(ResponseEntity::ok);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<ResponseTaskDTO>>> getTasks(@AuthenticationPrincipal TokenPrincipal principal,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer size,
+                                                                @RequestParam(defaultValue = "open") String status,
+                                                                @RequestHeader HttpHeaders requestHeaders) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        Boolean completed = parseStatus(status);
+        TaskCursor after = parseCursor(cursor);
+
+        return taskService.getTaskVersion(principal.id()).flatMap(version -> {
+            String etag = taskListETag(principal.id(), version, completed, after, pageSize);
+            List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+            if (ifNoneMatch.contains(etag) || ifNoneMatch.contains("*")) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag).cacheControl(TASK_LIST_CACHE).<List<ResponseTaskDTO>>build());
+            }
+            return taskService.getTasks(principal.id(), completed, after, pageSize + 1)
+                    .map(tasks -> page(tasks, pageSize, etag));
+        });
+    }
+
+    @PutMapping("/{id}/complete")
+    public Mono<ResponseEntity<Void>> completeTask(@AuthenticationPrincipal TokenPrincipal principal,
+                                                   @PathVariable Long id) {
+        return taskService.completeTask(principal.id(), id)
+                .map(completed -> completed
+                        ? ResponseEntity.noContent().<Void>build()
+                        : ResponseEntity.notFound().<Void>build());
+    }
+
+    @PutMapping("/complete")
+    public Mono<ResponseEntity<CompleteTasksResponseDTO>> completeTasks(@AuthenticationPrincipal TokenPrincipal principal,
+                                                                        @RequestBody List<Long> ids) {
+        if (ids.contains(null)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Task ids must not be null"));
+        }
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.size() > maxBatchSize) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxBatchSize + " ids per request"));
+        }
+        return taskService.completeTasks(principal.id(), distinctIds)
+                .map(completed -> ResponseEntity.ok(
+                        new CompleteTasksResponseDTO(distinctIds.size(), completed.intValue())));
+    }
+
+    private static ResponseEntity<List<ResponseTaskDTO>> page(List<ResponseTaskDTO> tasks, int pageSize, String etag) {
+        boolean hasMore = tasks.size() > pageSize;
+        if (hasMore) {
+            tasks = tasks.subList(0, pageSize);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag).cacheControl(TASK_LIST_CACHE);
+        if (hasMore) {
+            ResponseTaskDTO last = tasks.get(tasks.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, new TaskCursor(last.getCreatedAt(), last.getId()).encode());
+        }
+        return response.body(tasks);
+    }
+
+    // Same ETags as the backend's task list, so a client can switch between the two APIs.
+    static String taskListETag(Long userId, long version, Boolean completed, TaskCursor after, int pageSize) {
+        String query = completed + "|" + (after == null ? "" : after.encode()) + "|" + pageSize;
+        return "\"" + userId + "-" + version + "-" + Integer.toHexString(query.hashCode()) + "\"";
+    }
+
+    private static Boolean parseStatus(String status) {
+        return switch (status) {
+            case "open" -> Boolean.FALSE;
+            case "completed" -> Boolean.TRUE;
+            case "all" -> null;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown status: " + status);
+        };
+    }
+
+    private static TaskCursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return TaskCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.reactive.repository;
+
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.dto.TaskCursor;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Runs the same statements as the backend's {@code TaskRepository} against the schema Hibernate
+ * maintains there. Rows are mapped straight into {@link ResponseTaskDTO}.
+ */
+@Repository
+public class ReactiveTaskRepository {
+
+    // Keyset pages ordered by (created_at desc, id desc), served by the backend's
+    // idx_task_user_completed_created and idx_task_user_created indexes.
+    private static final String PAGE_SELECT =
+            "select id, title, description, completed, created_at from task where user_id = :userId";
+    private static final String PAGE_AFTER = " and created_at <= :createdAt and (created_at < :createdAt or id < :id)";
+    private static final String PAGE_ORDER = " order by created_at desc, id desc limit :limit";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveTaskRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<ResponseTaskDTO> findPage(Long userId, Boolean completed, TaskCursor after, int limit) {
+        StringBuilder sql = new StringBuilder(PAGE_SELECT);
+        if (completed != null) {
+            sql.append(" and completed = :completed");
+        }
+        if (after != null) {
+            sql.append(PAGE_AFTER);
+        }
+        sql.append(PAGE_ORDER);
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+                .bind("userId", userId)
+                .bind("limit", limit);
+        if (completed != null) {
+            spec = spec.bind("completed", completed);
+        }
+        if (after != null) {
+            spec = spec.bind("createdAt", after.createdAt()).bind("id", after.id());
+        }
+        return spec.map(ReactiveTaskRepository::toResponse).all();
+    }
+
+    /**
+     * Claims a whole block of {@code task_seq} and uses its last id. The backend's pooled
+     * optimizer uses the 50 ids ending at each value it fetches, so the blocks never overlap.
+     */
+    public Mono<Long> nextId() {
+        return databaseClient.sql("select nextval('task_seq')")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Mono<ResponseTaskDTO> insert(Long id, Long userId, String title, String description,
+                                        LocalDateTime createdAt) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                        "insert into task (id, title, description, completed, created_at, user_id)"
+                                + " values (:id, :title, :description, false, :createdAt, :userId)")
+                .bind("id", id)
+                .bind("createdAt", createdAt)
+                .bind("userId", userId);
+        spec = title == null ? spec.bindNull("title", String.class) : spec.bind("title", title);
+        spec = description == null ? spec.bindNull("description", String.class) : spec.bind("description", description);
+        return spec.fetch().rowsUpdated()
+                .thenReturn(new ResponseTaskDTO(id, title, description, false, createdAt));
+    }
+
+    // Ownership and the open state are part of the WHERE clause, as in the backend, so the count
+    // is exactly the number of open tasks that became completed.
+
+    public Mono<Long> completeTask(Long id, Long userId) {
+        return databaseClient.sql("update task set completed = true, completed_at = localtimestamp"
+                        + " where id = :id and user_id = :userId and completed = false")
+                .bind("id", id)
+                .bind("userId", userId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> completeTasks(Collection<Long> ids, Long userId) {
+        return databaseClient.sql("update task set completed = true, completed_at = localtimestamp"
+                        + " where id in (:ids) and user_id = :userId and completed = false")
+                .bind("ids", ids)
+                .bind("userId", userId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Boolean> existsTask(Long id, Long userId) {
+        return databaseClient.sql("select 1 from task where id = :id and user_id = :userId")
+                .bind("id", id)
+                .bind("userId", userId)
+                .map(row -> row.get(0))
+                .one()
+                .hasElement();
+    }
+
+    public Mono<Long> findTaskVersion(Long userId) {
+        return databaseClient.sql("select task_version from app_user where id = :userId")
+                .bind("userId", userId)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    /**
+     * Bumps the version the backend's ETags and change streams are derived from, so clients of
+     * either API see writes made through the other.
+     */
+    public Mono<Long> incrementTaskVersion(Long userId) {
+        return databaseClient.sql("update app_user set task_version = task_version + 1 where id = :userId")
+                .bind("userId", userId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static ResponseTaskDTO toResponse(Readable row) {
+        return new ResponseTaskDTO(
+                row.get("id", Long.class),
+                row.get("title", String.class),
+                row.get("description", String.class),
+                Boolean.TRUE.equals(row.get("completed", Boolean.class)),
+                row.get("created_at", LocalDateTime.class));
+    }
+}
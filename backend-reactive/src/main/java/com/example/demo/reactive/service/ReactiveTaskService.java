@@ -0,0 +1,68 @@
+package com.example.demo.reactive.service;
+
+import com.example.demo.dto.CreateTaskDTO;
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.dto.TaskCursor;
+import com.example.demo.reactive.repository.ReactiveTaskRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of the backend's {@code TaskService}. Every write bumps the user's
+ * task version in the same transaction, exactly like the servlet API does.
+ */
+@Service
+public class ReactiveTaskService {
+
+    private final ReactiveTaskRepository taskRepository;
+
+    public ReactiveTaskService(ReactiveTaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+    }
+
+    @Transactional
+    public Mono<ResponseTaskDTO> createTask(Long userId, CreateTaskDTO createTaskDTO) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        return taskRepository.nextId()
+                .flatMap(id -> taskRepository.insert(id, userId, createTaskDTO.getTitle(),
+                        createTaskDTO.getDescription(), createdAt))
+                .flatMap(created -> taskRepository.incrementTaskVersion(userId).thenReturn(created));
+    }
+
+    @Transactional(readOnly = true)
+    public Mono<List<ResponseTaskDTO>> getTasks(Long userId, Boolean completed, TaskCursor after, int limit) {
+        return taskRepository.findPage(userId, completed, after, limit).collectList();
+    }
+
+    public Mono<Long> getTaskVersion(Long userId) {
+        return taskRepository.findTaskVersion(userId).defaultIfEmpty(0L);
+    }
+
+    @Transactional
+    public Mono<Boolean> completeTask(Long userId, Long taskId) {
+        return taskRepository.completeTask(taskId, userId)
+                .flatMap(updated -> updated == 0
+                        // Completing a task twice succeeds without changing anything.
+                        ? taskRepository.existsTask(taskId, userId)
+                        : taskRepository.incrementTaskVersion(userId).thenReturn(true));
+    }
+
+    /**
+     * Returns how many of the listed tasks were open and are now completed.
+     */
+    @Transactional
+    public Mono<Long> completeTasks(Long userId, Collection<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return taskRepository.completeTasks(taskIds, userId)
+                .flatMap(updated -> updated == 0
+                        ? Mono.just(0L)
+                        : taskRepository.incrementTaskVersion(userId).thenReturn(updated));
+    }
+}
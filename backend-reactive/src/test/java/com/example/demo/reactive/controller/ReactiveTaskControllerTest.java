@@ -0,0 +1,245 @@
+package com.example.demo.reactive.controller;
+
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.reactive.config.TokenPrincipal;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+public class ReactiveTaskControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    private Long userId;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        userId = databaseClient.sql("select nextval('user_seq')")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+        databaseClient.sql("insert into app_user (id, email, full_name, password) values (:id, :email, 'Reactive', 'x')")
+                .bind("id", userId)
+                .bind("email", "reactive" + userId + "@example.com")
+                .then()
+                .block();
+        token = Jwts.builder()
+                .setSubject("reactive" + userId + "@example.com")
+                .claim(TokenPrincipal.CLAIM_USER_ID, userId)
+                .claim(TokenPrincipal.CLAIM_AUTHORITIES, "USER")
+                .setExpiration(new Date(System.currentTimeMillis() + 3600000))
+                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .compact();
+    }
+
+    @Test
+    void testCreateThenGetTasks() {
+        ResponseTaskDTO created = createTask("Reactive Task");
+        assertNotNull(created.getId());
+        assertFalse(created.isCompleted());
+
+        webTestClient.get().uri("/api/tasks")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG,
+                        ReactiveTaskController.taskListETag(userId, 1, false, null, 5))
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].title").isEqualTo("Reactive Task");
+    }
+
+    @Test
+    void testGetTasks_MatchingETagReturnsNotModified() {
+        createTask("Polled Task");
+
+        String etag = webTestClient.get().uri("/api/tasks")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getETag();
+
+        webTestClient.get().uri("/api/tasks")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        webTestClient.get().uri("/api/tasks?status=all")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void testGetTasks_PagesWithCursor() {
+        createTask("First");
+        createTask("Second");
+        createTask("Third");
+
+        String cursor = webTestClient.get().uri("/api/tasks?size=2")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ResponseTaskDTO.class).hasSize(2)
+                .returnResult()
+                .getResponseHeaders()
+                .getFirst(ReactiveTaskController.NEXT_CURSOR_HEADER);
+        assertNotNull(cursor);
+
+        webTestClient.get().uri("/api/tasks?size=2&cursor=" + cursor)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(ReactiveTaskController.NEXT_CURSOR_HEADER)
+                .expectBodyList(ResponseTaskDTO.class).hasSize(1);
+    }
+
+    @Test
+    void testCompleteTask() {
+        ResponseTaskDTO created = createTask("Task to Complete");
+
+        webTestClient.put().uri("/api/tasks/" + created.getId() + "/complete")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient.get().uri("/api/tasks")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG,
+                        ReactiveTaskController.taskListETag(userId, 2, false, null, 5))
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(0);
+    }
+
+    @Test
+    void testCompleteTask_TwiceLeavesVersionUnchanged() {
+        ResponseTaskDTO created = createTask("Task to Complete Twice");
+
+        for (int i = 0; i < 2; i++) {
+            webTestClient.put().uri("/api/tasks/" + created.getId() + "/complete")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .exchange()
+                    .expectStatus().isNoContent();
+        }
+
+        webTestClient.get().uri("/api/tasks?status=completed")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG,
+                        ReactiveTaskController.taskListETag(userId, 2, true, null, 5));
+    }
+
+    @Test
+    void testCompleteTask_NotFound() {
+        webTestClient.put().uri("/api/tasks/999999/complete")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testCompleteTasks_ReportsCompletedCount() {
+        ResponseTaskDTO first = createTask("First");
+        ResponseTaskDTO second = createTask("Second");
+
+        webTestClient.put().uri("/api/tasks/complete")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(first.getId(), second.getId(), 999999L))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.requested").isEqualTo(3)
+                .jsonPath("$.completed").isEqualTo(2);
+    }
+
+    @Test
+    void testCompleteTasks_AlreadyCompletedAreNotCounted() {
+        ResponseTaskDTO first = createTask("First");
+        ResponseTaskDTO second = createTask("Second");
+        webTestClient.put().uri("/api/tasks/" + first.getId() + "/complete")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient.put().uri("/api/tasks/complete")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(first.getId(), second.getId()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.requested").isEqualTo(2)
+                .jsonPath("$.completed").isEqualTo(1);
+    }
+
+    @Test
+    void testCompleteTasks_NullIdIsBadRequest() {
+        webTestClient.put().uri("/api/tasks/complete")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[1, null]")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testGetTasks_WithoutTokenIsUnauthorized() {
+        webTestClient.get().uri("/api/tasks")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void testGetTasks_InvalidStatusIsBadRequest() {
+        webTestClient.get().uri("/api/tasks?status=archived")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private ResponseTaskDTO createTask(String title) {
+        return webTestClient.post().uri("/api/tasks")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"title\":\"" + title + "\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ResponseTaskDTO.class)
+                .returnResult()
+                .getResponseBody();
+    }
+}
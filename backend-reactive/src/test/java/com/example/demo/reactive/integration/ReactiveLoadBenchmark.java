@@ -0,0 +1,144 @@
+package com.example.demo.reactive.integration;
+
+import com.example.demo.dto.CreateTaskDTO;
+import com.example.demo.reactive.ReactiveTodoApplication;
+import com.example.demo.reactive.config.TokenPrincipal;
+import com.example.demo.reactive.service.ReactiveTaskService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Applies the load of the backend's {@code ThreadingModeLoadBenchmark} (same clients, pool size,
+ * data set and request) to the reactive API, so its output line can be read next to the
+ * platform-thread and virtual-thread lines printed there. Run on demand with:
+ * <pre>mvn test -Dtest=ReactiveLoadBenchmark -Dbenchmarks=true</pre>
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class ReactiveLoadBenchmark {
+
+    private static final String SECRET =
+            "YmVuY2htYXJrLXNlY3JldC10aGF0LWlzLWNvbWZvcnRhYmx5LWxvbmdlci10aGFuLXNpeHR5LWZvdXItYnl0ZXMhIQ==";
+    private static final int CLIENTS = 256;
+    private static final int TASKS = 50;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASURED = Duration.ofSeconds(20);
+
+    @Test
+    void measureReactiveThroughput() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ReactiveTodoApplication.class)
+                // Command-line arguments, so application.properties cannot override them.
+                .run(
+                        "--server.port=0",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///bench-reactive;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.r2dbc.username=sa",
+                        "--spring.r2dbc.password=",
+                        "--spring.r2dbc.pool.initial-size=8",
+                        "--spring.r2dbc.pool.max-size=8",
+                        "--spring.sql.init.mode=always",
+                        "--jwt.secret=" + SECRET)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String token = seed(context);
+            URI uri = URI.create("http://localhost:" + port + "/api/tasks?status=all&size=20");
+
+            load(uri, token, WARMUP, new ArrayList<>(), new LongAdder());
+            List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+            LongAdder errors = new LongAdder();
+            load(uri, token, MEASURED, latencies, errors);
+
+            Result result = Result.of("reactive", latencies, errors.sum());
+            System.out.println(result);
+            assertEquals(0, result.errors());
+        }
+    }
+
+    private static String seed(ConfigurableApplicationContext context) {
+        long userId = 1;
+        context.getBean(DatabaseClient.class)
+                .sql("insert into app_user (id, email, full_name, password) values (:id, 'bench@example.com', 'Bench User', 'unused')")
+                .bind("id", userId)
+                .then()
+                .block();
+
+        ReactiveTaskService taskService = context.getBean(ReactiveTaskService.class);
+        for (int i = 0; i < TASKS; i++) {
+            CreateTaskDTO createTaskDTO = new CreateTaskDTO();
+            createTaskDTO.setTitle("Task " + i);
+            taskService.createTask(userId, createTaskDTO).block();
+        }
+
+        return Jwts.builder()
+                .setSubject("bench@example.com")
+                .claim(TokenPrincipal.CLAIM_USER_ID, userId)
+                .claim(TokenPrincipal.CLAIM_AUTHORITIES, "USER")
+                .setExpiration(new Date(System.currentTimeMillis() + 3600000))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+    }
+
+    private static void load(URI uri, String token, Duration duration, List<Long> latencies, LongAdder errors)
+            throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", "Bearer " + token).GET().build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                        latencies.add(System.nanoTime() - start);
+                    }
+                });
+            }
+        }
+    }
+
+    private record Result(String mode, int requests, double perSecond, double p50Millis, double p99Millis, long errors) {
+
+        static Result of(String mode, List<Long> latencies, long errors) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            double perSecond = sorted.size() / (double) MEASURED.toSeconds();
+            return new Result(mode, sorted.size(), perSecond,
+                    percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6, errors);
+        }
+
+        private static long percentile(List<Long> sorted, double quantile) {
+            return sorted.isEmpty() ? 0 : sorted.get((int) Math.min(sorted.size() - 1, sorted.size() * quantile));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-8s %8d req %10.1f req/s   p50 %7.2f ms   p99 %7.2f ms   errors %d",
+                    mode, requests, perSecond, p50Millis, p99Millis, errors);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchRequestDTO {
+    private List<CreateTaskDTO> create = new ArrayList<>();
+    private List<Long> complete = new ArrayList<>();
+
+    public List<CreateTaskDTO> getCreate() {
+        return create;
+    }
+    public void setCreate(List<CreateTaskDTO> create) {
+        this.create = create == null ? new ArrayList<>() : create;
+    }
+    public List<Long> getComplete() {
+        return complete;
+    }
+    public void setComplete(List<Long> complete) {
+        this.complete = complete == null ? new ArrayList<>() : complete;
+    }
+}
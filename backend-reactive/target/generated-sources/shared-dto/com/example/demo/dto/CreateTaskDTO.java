@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+public class CreateTaskDTO {
+    private String title;
+    private String description;
+
+    public String getTitle() {
+        return title;
+    }
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    public String getDescription() {
+        return description;
+    }
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
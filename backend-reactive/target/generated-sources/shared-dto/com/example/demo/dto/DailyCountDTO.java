@@ -0,0 +1,33 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+
+public class DailyCountDTO {
+    private LocalDate day;
+    private long count;
+
+    public DailyCountDTO() {
+    }
+
+    /**
+     * Also used by a JPQL constructor expression in {@code TaskRepository}, which passes the
+     * count as a {@code Long}.
+     */
+    public DailyCountDTO(LocalDate day, Long count) {
+        this.day = day;
+        this.count = count;
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+    public long getCount() {
+        return count;
+    }
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of an import. {@code imported} tasks are committed even when the import was
+ * {@code aborted} part way through on malformed input; {@code errors} lists the first rejected
+ * lines and, last, what stopped an aborted import.
+ */
+public class ImportResultDTO {
+    private long imported;
+    private long rejected;
+    private int chunks;
+    private boolean aborted;
+    private List<ImportErrorDTO> errors = new ArrayList<>();
+
+    public long getImported() {
+        return imported;
+    }
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+    public long getRejected() {
+        return rejected;
+    }
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+    public int getChunks() {
+        return chunks;
+    }
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+    public boolean isAborted() {
+        return aborted;
+    }
+    public void setAborted(boolean aborted) {
+        this.aborted = aborted;
+    }
+    public List<ImportErrorDTO> getErrors() {
+        return errors;
+    }
+    public void setErrors(List<ImportErrorDTO> errors) {
+        this.errors = errors;
+    }
+
+    public static class ImportErrorDTO {
+        private long line;
+        private String message;
+
+        public ImportErrorDTO() {
+        }
+
+        public ImportErrorDTO(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+        public void setLine(long line) {
+            this.line = line;
+        }
+        public String getMessage() {
+            return message;
+        }
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
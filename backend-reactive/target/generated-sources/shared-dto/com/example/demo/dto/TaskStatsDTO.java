@@ -0,0 +1,38 @@
+package com.example.demo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TaskStatsDTO {
+    private long open;
+    private long completed;
+    private List<DailyCountDTO> createdPerDay = new ArrayList<>();
+
+    public TaskStatsDTO() {
+    }
+
+    public TaskStatsDTO(long open, long completed, List<DailyCountDTO> createdPerDay) {
+        this.open = open;
+        this.completed = completed;
+        this.createdPerDay = createdPerDay;
+    }
+
+    public long getOpen() {
+        return open;
+    }
+    public void setOpen(long open) {
+        this.open = open;
+    }
+    public long getCompleted() {
+        return completed;
+    }
+    public void setCompleted(long completed) {
+        this.completed = completed;
+    }
+    public List<DailyCountDTO> getCreatedPerDay() {
+        return createdPerDay;
+    }
+    public void setCreatedPerDay(List<DailyCountDTO> createdPerDay) {
+        this.createdPerDay = createdPerDay;
+    }
+}
@@ -0,0 +1,20 @@
+create sequence if not exists user_seq start with 1 increment by 50;
+create sequence if not exists task_seq start with 1 increment by 50;
+
+create table if not exists app_user (
+    id bigint primary key,
+    email varchar(255) not null unique,
+    full_name varchar(255) not null,
+    password varchar(255) not null,
+    task_version bigint default 0 not null
+);
+
+create table if not exists task (
+    id bigint primary key,
+    title varchar(255),
+    description varchar(255),
+    completed boolean not null,
+    created_at timestamp(6),
+    completed_at timestamp(6),
+    user_id bigint not null references app_user (id)
+);
@@ -0,0 +1,193 @@
+package com.example.demo.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded, expiring in-memory cache. Keys are spread over independently locked
+ * segments, each of which evicts its least recently used entry once it is full.
+ */
+public class BoundedCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final long defaultTtlMillis;
+    private final LongSupplier clock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(int maxSize, Duration defaultTtl) {
+        this(maxSize, defaultTtl, System::currentTimeMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    BoundedCache(int maxSize, Duration defaultTtl, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        int segmentCount = Math.min(MAX_SEGMENTS, maxSize);
+        int segmentCapacity = (maxSize + segmentCount - 1) / segmentCount;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity, evictions);
+        }
+        this.defaultTtlMillis = defaultTtl.toMillis();
+        this.clock = clock;
+    }
+
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = clock.getAsLong();
+        segment.lock.lock();
+        try {
+            Entry<V> entry = segment.get(key);
+            if (entry != null && entry.expiresAt() > now) {
+                hits.increment();
+                return entry.value();
+            }
+            if (entry != null) {
+                segment.remove(key);
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Returns the cached value, or loads and caches it with the default TTL. The loader runs
+     * outside the segment lock, so concurrent misses for the same key may both load.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, clock.getAsLong() + defaultTtlMillis);
+    }
+
+    public void put(K key, V value, long expiresAtMillis) {
+        if (expiresAtMillis <= clock.getAsLong()) {
+            return;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.put(key, new Entry<>(value, expiresAtMillis));
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Atomically combines {@code value} with the live cached value, if any, stores the result
+     * with the default TTL and returns it.
+     */
+    public V merge(K key, V value, BinaryOperator<V> remapping) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = clock.getAsLong();
+        segment.lock.lock();
+        try {
+            Entry<V> entry = segment.get(key);
+            V merged = entry != null && entry.expiresAt() > now ? remapping.apply(entry.value(), value) : value;
+            segment.put(key, new Entry<>(merged, now + defaultTtlMillis));
+            return merged;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public long hitCount() { return hits.sum(); }
+
+    public long missCount() { return misses.sum(); }
+
+    public long evictionCount() { return evictions.sum(); }
+
+    public double hitRatio() {
+        long hitCount = hits.sum();
+        long requests = hitCount + misses.sum();
+        return requests == 0 ? 0.0 : (double) hitCount / requests;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[Math.floorMod(h, segments.length)];
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int capacity;
+        private final LongAdder evictions;
+
+        Segment(int capacity, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.config;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal shared by password login and JWT authentication. Tokens carry the id and
+ * authorities as claims, so a request can be authenticated without loading the user.
+ * Deliberately not a {@code CredentialsContainer}: cached instances must keep their
+ * password hash after the authentication that loaded them erases its credentials.
+ */
+public class AuthenticatedUser implements UserDetails {
+
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_AUTHORITIES = "auth";
+
+    private final Long id;
+    private final String email;
+    private final String password;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long id, String email, String password, Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.authorities = List.copyOf(authorities);
+    }
+
+    public static AuthenticatedUser fromClaims(Long id, String email, String authorities) {
+        return new AuthenticatedUser(id, email, null,
+                AuthorityUtils.commaSeparatedStringToAuthorityList(authorities == null ? "" : authorities));
+    }
+
+    public Long getId() { return id; }
+
+    public String getAuthoritiesClaim() {
+        return String.join(",", AuthorityUtils.authorityListToSet(authorities));
+    }
+
+    @Override
+    public String getUsername() { return email; }
+
+    @Override
+    public String getPassword() { return password; }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() { return authorities; }
+}
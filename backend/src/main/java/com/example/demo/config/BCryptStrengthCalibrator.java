@@ -0,0 +1,56 @@
+package com.example.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks the highest BCrypt strength whose hash time stays within a latency budget on the
+ * current hardware. Each strength step doubles the work, so one measurement at the minimum
+ * strength is enough to extrapolate.
+ */
+public final class BCryptStrengthCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(BCryptStrengthCalibrator.class);
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample";
+    private static final int SAMPLES = 3;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    public static int calibrate(Duration budget, int minStrength, int maxStrength) {
+        if (budget.isZero() || budget.isNegative()) {
+            return minStrength;
+        }
+        long nanosAtMin = measure(minStrength);
+        int strength = strengthFor(budget.toNanos(), nanosAtMin, minStrength, maxStrength);
+        log.info("BCrypt strength {} selected for a {} ms budget ({} ms measured at strength {})",
+                strength, budget.toMillis(), nanosAtMin / 1_000_000, minStrength);
+        return strength;
+    }
+
+    public static int strengthFor(long budgetNanos, long nanosAtMin, int minStrength, int maxStrength) {
+        int strength = minStrength;
+        long estimate = Math.max(nanosAtMin, 1);
+        while (strength < maxStrength && estimate * 2 <= budgetNanos) {
+            estimate *= 2;
+            strength++;
+        }
+        return strength;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode(SAMPLE_PASSWORD);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
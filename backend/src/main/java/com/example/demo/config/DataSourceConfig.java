@@ -0,0 +1,65 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * In virtual-thread mode ({@code spring.threads.virtual.enabled=true}), wraps the pool so
+     * that at most {@code db.connection-limit.permits} connections are handed out at once
+     * (0 means the pool size).
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+                int limit = environment.getRequiredProperty("db.connection-limit.permits", Integer.class);
+                if (limit <= 0) {
+                    // The pool may already be wrapped by statementCountingDataSourcePostProcessor.
+                    HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class,
+                            HikariDataSource.class);
+                    limit = hikari != null ? hikari.getMaximumPoolSize() : 10;
+                }
+                long timeout = environment.getRequiredProperty("db.connection-limit.timeout", Long.class);
+                return new ConnectionLimitingDataSource(dataSource, limit, timeout);
+            }
+        };
+    }
+
+    /**
+     * Wraps the pool so that {@link StatementBudgetInterceptor} can count the statements each
+     * request runs, unless {@code db.statement-budget.mode} is {@code off}.
+     */
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof StatementCountingDataSource) {
+                    return bean;
+                }
+                String mode = environment.getRequiredProperty("db.statement-budget.mode");
+                if (StatementBudgetInterceptor.Mode.parse(mode) == StatementBudgetInterceptor.Mode.OFF) {
+                    return bean;
+                }
+                return new StatementCountingDataSource(dataSource);
+            }
+        };
+    }
+}
@@ -1,32 +1,59 @@
 package com.example.demo.config;
 
+import com.example.demo.cache.BoundedCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    public enum Outcome {
+        CACHED, VALID, EXPIRED, INVALID
+    }
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
-    private final UserDetailsService userDetailsService;
+    // Keyed by a SHA-256 digest of the token so raw bearer tokens are never retained,
+    // and each entry expires together with the token's own exp claim.
+    private final BoundedCache<String, AuthenticatedUser> verifiedTokens;
+    private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+
+    public JwtAuthenticationFilter(@Value("${jwt.cache.max-size}") int tokenCacheMaxSize,
+                                   @Value("${jwt.expiration}") long jwtExpiration) {
+        this.verifiedTokens = new BoundedCache<>(tokenCacheMaxSize, Duration.ofMillis(jwtExpiration));
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    public BoundedCache<String, AuthenticatedUser> getVerifiedTokenCache() {
+        return verifiedTokens;
+    }
 
-    public JwtAuthenticationFilter(UserDetailsService userDetailsService) {
-        this.userDetailsService = userDetailsService;
+    public long getValidationCount(Outcome outcome) {
+        return outcomes.get(outcome).sum();
     }
 
     @Override
@@ -36,19 +63,50 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
             try {
-                Claims claims = Jwts.parserBuilder()
-                        .setSigningKey(jwtSecret)
-                        .build()
-                        .parseClaimsJws(token)
-                        .getBody();
-                String username = claims.getSubject();
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                JwtAuthenticationToken authentication = new JwtAuthenticationToken(resolveUser(token));
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);  } catch (Exception e) {
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            } catch (ExpiredJwtException e) {
+                outcomes.get(Outcome.EXPIRED).increment();
+            } catch (Exception e) {
+                outcomes.get(Outcome.INVALID).increment();
             }
         }
         chain.doFilter(request, response);
     }
+
+    private AuthenticatedUser resolveUser(String token) {
+        String key = digest(token);
+        AuthenticatedUser cached = verifiedTokens.get(key);
+        if (cached != null) {
+            outcomes.get(Outcome.CACHED).increment();
+            return cached;
+        }
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(jwtSecret)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+        Long userId = claims.get(AuthenticatedUser.CLAIM_USER_ID, Long.class);
+        if (userId == null) {
+            throw new IllegalArgumentException("Token has no " + AuthenticatedUser.CLAIM_USER_ID + " claim");
+        }
+        AuthenticatedUser user = AuthenticatedUser.fromClaims(
+                userId, claims.getSubject(), claims.get(AuthenticatedUser.CLAIM_AUTHORITIES, String.class));
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            verifiedTokens.put(key, user, expiration.getTime());
+        }
+        outcomes.get(Outcome.VALID).increment();
+        return user;
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
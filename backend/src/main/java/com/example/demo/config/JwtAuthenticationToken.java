@@ -0,0 +1,24 @@
+package com.example.demo.config;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+
+public class JwtAuthenticationToken extends AbstractAuthenticationToken {
+
+    private final AuthenticatedUser principal;
+
+    public JwtAuthenticationToken(AuthenticatedUser principal) {
+        super(principal.getAuthorities());
+        this.principal = principal;
+        setAuthenticated(true);
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public AuthenticatedUser getPrincipal() {
+        return principal;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.Locale;
+
+/**
+ * Application meters on top of what Spring Boot binds itself: {@code http.server.requests} per
+ * route, {@code hibernate.*} statistics and {@code hikaricp.*} pool usage and acquire time.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder jwtValidationMetrics(JwtAuthenticationFilter jwtAuthFilter) {
+        return registry -> {
+            for (JwtAuthenticationFilter.Outcome outcome : JwtAuthenticationFilter.Outcome.values()) {
+                FunctionCounter.builder("auth.jwt.validations", jwtAuthFilter, f -> f.getValidationCount(outcome))
+                        .description("Bearer tokens seen by the JWT filter, by validation outcome")
+                        .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                        .register(registry);
+            }
+            Gauge.builder("auth.jwt.cache.size", jwtAuthFilter, f -> f.getVerifiedTokenCache().size())
+                    .description("Verified tokens currently cached")
+                    .register(registry);
+        };
+    }
+
+    // In virtual-thread mode requests wait for a permit before they reach the pool, so the
+    // Hikari acquire timer alone does not show that wait.
+    @Bean
+    public MeterBinder connectionLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            ConnectionLimitingDataSource limiter = DataSourceUnwrapper.unwrap(dataSource, ConnectionLimitingDataSource.class);
+            if (limiter == null) {
+                return;
+            }
+            Gauge.builder("db.connection.limit.available", limiter, ConnectionLimitingDataSource::getAvailablePermits)
+                    .description("Connection permits not currently held")
+                    .register(registry);
+            Gauge.builder("db.connection.limit.waiting", limiter, ConnectionLimitingDataSource::getQueueLength)
+                    .description("Threads waiting for a connection permit")
+                    .register(registry);
+            FunctionCounter.builder("db.connection.limit.timeouts", limiter, ConnectionLimitingDataSource::getTimeoutCount)
+                    .description("Connection requests that gave up waiting for a permit")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder statementBudgetMetrics(StatementBudgetInterceptor statementBudgetInterceptor) {
+        return registry -> {
+            FunctionCounter.builder("db.statement.budget.violations", statementBudgetInterceptor,
+                            StatementBudgetInterceptor::getOverBudgetCount)
+                    .description("Requests that ran more SQL statements than their endpoint's budget")
+                    .tag("kind", "over_budget")
+                    .register(registry);
+            FunctionCounter.builder("db.statement.budget.violations", statementBudgetInterceptor,
+                            StatementBudgetInterceptor::getRepeatedStatementCount)
+                    .description("Statements a request repeated more often than allowed, likely N+1 queries")
+                    .tag("kind", "repeated")
+                    .register(registry);
+        };
+    }
+}
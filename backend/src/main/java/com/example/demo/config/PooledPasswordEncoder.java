@@ -0,0 +1,36 @@
+package com.example.demo.config;
+
+import com.example.demo.service.PasswordHashingExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Runs the hashing of another encoder on the {@link PasswordHashingExecutor}. Only the CPU-bound
+ * work leaves the caller's thread: the user lookup before a login and the rehash UPDATE after it
+ * stay in the request's transaction and never hold a hashing thread while waiting on the database.
+ */
+public class PooledPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor hashingExecutor;
+
+    public PooledPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor hashingExecutor) {
+        this.delegate = delegate;
+        this.hashingExecutor = hashingExecutor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hashingExecutor.execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hashingExecutor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Only parses the stored hash.
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
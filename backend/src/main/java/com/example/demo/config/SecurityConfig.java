@@ -1,12 +1,21 @@
 package com.example.demo.config;
 
+import com.example.demo.controller.TaskController;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.CachingUserDetailsService;
+import com.example.demo.service.CustomUserDetailsService;
+import com.example.demo.service.PasswordHashingExecutor;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -14,7 +23,9 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 public class SecurityConfig {
@@ -32,6 +43,11 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()
+                        // Only served on management.server.port, which is not published outside the host network.
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+                        // Async endpoints (stream, export, import) finish on an ASYNC dispatch of the
+                        // same request, which was authenticated and authorized on its first dispatch.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
@@ -48,6 +64,7 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(List.of("*"));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
+        configuration.setExposedHeaders(List.of(TaskController.NEXT_CURSOR_HEADER, HttpHeaders.ETAG));
         configuration.setAllowCredentials(true); // Allow cookies, authorization headers
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
@@ -55,8 +72,24 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public CachingUserDetailsService userDetailsService(UserRepository userRepository,
+                                                        @Value("${auth.user-cache.max-size}") int maxSize,
+                                                        @Value("${auth.user-cache.ttl}") long ttl) {
+        return new CachingUserDetailsService(new CustomUserDetailsService(userRepository), maxSize, Duration.ofMillis(ttl));
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${auth.password.hash-budget}") long hashBudget,
+                                           @Value("${auth.password.min-strength}") int minStrength,
+                                           @Value("${auth.password.max-strength}") int maxStrength,
+                                           PasswordHashingExecutor hashingExecutor) {
+        int strength = BCryptStrengthCalibrator.calibrate(Duration.ofMillis(hashBudget), minStrength, maxStrength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(strength)));
+        // Hashes stored before the {id} prefix was introduced are plain BCrypt; they still match
+        // and are re-encoded on the next successful login.
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return new PooledPasswordEncoder(encoder, hashingExecutor);
     }
 
     @Bean
@@ -0,0 +1,149 @@
+package com.example.demo.config;
+
+import java.sql.SQLException;
+import java.sql.SQLNonTransientException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements {@link StatementCountingDataSource} executes on the current thread
+ * while a {@link Scope} is open. {@link StatementBudgetInterceptor} opens one per request;
+ * tests open their own around a call to assert exactly what it ran:
+ * <pre>
+ * try (SqlStatementCounter.Scope statements = SqlStatementCounter.open()) {
+ *     mockMvc.perform(...);
+ *     assertEquals(4, statements.getCount());
+ * }
+ * </pre>
+ * Scopes nest, and a statement counts in every open scope up to the innermost one opened with
+ * {@link #openSeparate()}. Work handed to other threads, such as a streamed export body, is not
+ * counted.
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static Scope open() {
+        return open(StatementBudget.UNLIMITED, StatementBudget.UNLIMITED, false);
+    }
+
+    /**
+     * Opens a scope that throws from the statement that exceeds {@code maxStatements} or runs
+     * more than {@code maxRepeats} times when {@code enforce} is set, before it reaches the
+     * database.
+     */
+    public static Scope open(int maxStatements, int maxRepeats, boolean enforce) {
+        Scope scope = new Scope(CURRENT.get(), maxStatements, maxRepeats, enforce);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Opens a scope that keeps its statements out of the scopes already open, for one-off work
+     * such as filling a cache that a request's budget should not include.
+     */
+    public static Scope openSeparate() {
+        Scope scope = new Scope(CURRENT.get(), StatementBudget.UNLIMITED, StatementBudget.UNLIMITED, false);
+        scope.separate = true;
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static boolean isCounting() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Records one execution of {@code sql}. Batches count towards the total but not as repeats,
+     * since batching is what replaces repeated single statements.
+     */
+    static void record(String sql, boolean batch) throws SQLException {
+        String violation = null;
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.separate ? null : scope.parent) {
+            String problem = scope.record(sql, batch);
+            if (violation == null) {
+                violation = problem;
+            }
+        }
+        if (violation != null) {
+            throw new SQLNonTransientException(violation);
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private final int maxStatements;
+        private final int maxRepeats;
+        private final boolean enforce;
+        private final Map<String, Integer> executions = new LinkedHashMap<>();
+        private boolean separate;
+        private int count;
+
+        private Scope(Scope parent, int maxStatements, int maxRepeats, boolean enforce) {
+            this.parent = parent;
+            this.maxStatements = maxStatements;
+            this.maxRepeats = maxRepeats;
+            this.enforce = enforce;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public int getMaxStatements() {
+            return maxStatements;
+        }
+
+        /**
+         * Executions per statement text outside of batches, in the order first seen.
+         */
+        public Map<String, Integer> getExecutions() {
+            return Collections.unmodifiableMap(executions);
+        }
+
+        public boolean isOverBudget() {
+            return count > maxStatements;
+        }
+
+        public Map<String, Integer> getRepeatedStatements() {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            executions.forEach((sql, times) -> {
+                if (times > maxRepeats) {
+                    repeated.put(sql, times);
+                }
+            });
+            return repeated;
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                if (parent == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(parent);
+                }
+            }
+        }
+
+        private String record(String sql, boolean batch) {
+            count++;
+            if (count > maxStatements && enforce) {
+                return "Statement budget of " + maxStatements + " exceeded by: " + sql;
+            }
+            if (batch) {
+                return null;
+            }
+            int times = executions.merge(sql, 1, Integer::sum);
+            if (times > maxRepeats && enforce) {
+                return "Statement repeated " + times + " times, likely an N+1 query: " + sql;
+            }
+            return null;
+        }
+    }
+}
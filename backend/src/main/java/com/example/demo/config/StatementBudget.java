@@ -0,0 +1,34 @@
+package com.example.demo.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares how many SQL statements one request to the annotated handler may execute, and how
+ * often the same statement may run in it. {@link StatementBudgetInterceptor} checks both as
+ * the request runs; handlers without the annotation only have repeated statements logged.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface StatementBudget {
+
+    int UNLIMITED = Integer.MAX_VALUE;
+
+    // Use db.statement-budget.max-repeats.
+    int DEFAULT = -1;
+
+    /**
+     * Statements the request may execute in total. A JDBC batch counts once.
+     */
+    int value();
+
+    /**
+     * Times the same statement may run outside of a JDBC batch before it is reported as a
+     * likely N+1 query.
+     */
+    int maxRepeats() default DEFAULT;
+}
@@ -0,0 +1,36 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Applies {@link StatementBudget}s to the API. {@code db.statement-budget.mode} is {@code log}
+ * in production and {@code fail} where a regression should break the build; {@code off} also
+ * leaves the data source unwrapped.
+ */
+@Configuration
+public class StatementBudgetConfig implements WebMvcConfigurer {
+
+    private final StatementBudgetInterceptor statementBudgetInterceptor;
+
+    public StatementBudgetConfig(@Value("${db.statement-budget.mode}") String mode,
+                                 @Value("${db.statement-budget.max-repeats}") int maxRepeats) {
+        this.statementBudgetInterceptor = new StatementBudgetInterceptor(StatementBudgetInterceptor.Mode.parse(mode),
+                maxRepeats);
+    }
+
+    @Bean
+    public StatementBudgetInterceptor statementBudgetInterceptor() {
+        return statementBudgetInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (statementBudgetInterceptor.getMode() != StatementBudgetInterceptor.Mode.OFF) {
+            registry.addInterceptor(statementBudgetInterceptor).addPathPatterns("/api/**");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the SQL statements each request runs on its own thread and checks them against the
+ * handler's {@link StatementBudget}. In {@link Mode#LOG} violations are logged once the request
+ * completes; in {@link Mode#FAIL} the statement that breaks a declared budget throws instead of
+ * running, so the request fails. Repeated statements of handlers without a budget are only
+ * ever logged.
+ */
+public class StatementBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementBudgetInterceptor.class);
+
+    static final String SCOPE_ATTRIBUTE = StatementBudgetInterceptor.class.getName() + ".scope";
+
+    public enum Mode {
+        OFF, LOG, FAIL;
+
+        public static Mode parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final Mode mode;
+    private final int maxRepeats;
+    private final LongAdder overBudget = new LongAdder();
+    private final LongAdder repeated = new LongAdder();
+
+    public StatementBudgetInterceptor(Mode mode, int maxRepeats) {
+        this.mode = mode;
+        this.maxRepeats = maxRepeats;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (mode == Mode.OFF || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        StatementBudget budget = method.getMethodAnnotation(StatementBudget.class);
+        SqlStatementCounter.Scope scope = budget == null
+                ? SqlStatementCounter.open(StatementBudget.UNLIMITED, maxRepeats, false)
+                : SqlStatementCounter.open(budget.value(),
+                        budget.maxRepeats() == StatementBudget.DEFAULT ? maxRepeats : budget.maxRepeats(),
+                        mode == Mode.FAIL);
+        request.setAttribute(SCOPE_ATTRIBUTE, scope);
+        return true;
+    }
+
+    // The async dispatch that completes a stream or export runs preHandle again with a new scope.
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        close(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        close(request);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public long getOverBudgetCount() {
+        return overBudget.sum();
+    }
+
+    public long getRepeatedStatementCount() {
+        return repeated.sum();
+    }
+
+    private void close(HttpServletRequest request) {
+        if (!(request.getAttribute(SCOPE_ATTRIBUTE) instanceof SqlStatementCounter.Scope scope)) {
+            return;
+        }
+        request.removeAttribute(SCOPE_ATTRIBUTE);
+        scope.close();
+        String endpoint = request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (scope.isOverBudget()) {
+            overBudget.increment();
+            log.warn("{} ran {} SQL statements, over its budget of {}", endpoint, scope.getCount(),
+                    scope.getMaxStatements());
+        }
+        scope.getRepeatedStatements().forEach((sql, times) -> {
+            repeated.increment();
+            log.warn("{} ran the same SQL statement {} times: {}", endpoint, times, sql);
+        });
+    }
+}
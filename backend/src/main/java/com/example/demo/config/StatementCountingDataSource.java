@@ -0,0 +1,97 @@
+package com.example.demo.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Reports every statement executed on its connections to {@link SqlStatementCounter}, whether
+ * it comes from Hibernate, Spring Data or a {@code JdbcTemplate}. Outside of a counting scope
+ * the only cost is a thread-local lookup per execute.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate");
+    private static final Set<String> BATCH_METHODS = Set.of("executeBatch", "executeLargeBatch");
+    private static final String UNKNOWN_SQL = "<batch>";
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countStatements(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countStatements(super.getConnection(username, password));
+    }
+
+    private static Connection countStatements(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(proxy, connection, method, args);
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class, statement, new StatementHandler(statement, (String) args[0]));
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, statement, new StatementHandler(statement, (String) args[0]));
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, statement, new StatementHandler(statement, null));
+            }
+            return result;
+        });
+    }
+
+    private record StatementHandler(Statement target, String preparedSql) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (SqlStatementCounter.isCounting()) {
+                if (EXECUTE_METHODS.contains(method.getName())) {
+                    SqlStatementCounter.record(args != null && args.length > 0 && args[0] instanceof String sql
+                            ? sql : preparedSql, false);
+                } else if (BATCH_METHODS.contains(method.getName())) {
+                    SqlStatementCounter.record(preparedSql != null ? preparedSql : UNKNOWN_SQL, true);
+                }
+            }
+            return StatementCountingDataSource.invoke(proxy, target, method, args);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[] {type}, handler);
+    }
+
+    // Proxies compare by identity, so Hibernate can keep them as keys of its resource registry.
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                break;
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
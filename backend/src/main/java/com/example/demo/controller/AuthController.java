@@ -1,15 +1,24 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.AuthenticatedUser;
+import com.example.demo.config.StatementBudget;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.service.HashingCapacityExceededException;
+import com.example.demo.service.UserCredentialsChangedEvent;
+import com.example.demo.service.UserLoggedInEvent;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -22,6 +31,7 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${jwt.secret}")
     private String jwtSecret;
@@ -29,12 +39,15 @@ public class AuthController {
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
-    public AuthController(AuthenticationManager authenticationManager, UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public AuthController(AuthenticationManager authenticationManager, UserRepository userRepository,
+                          PasswordEncoder passwordEncoder, ApplicationEventPublisher eventPublisher) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
 
+    @StatementBudget(3)
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody User user) {
         if (userRepository.findByEmail(user.getEmail()).isPresent()) {
@@ -42,22 +55,34 @@ public class AuthController {
         }
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserCredentialsChangedEvent(user.getEmail()));
         return ResponseEntity.ok("User registered successfully");
     }
 
+    @StatementBudget(2)
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody User user) {
+        // The password encoder hands the BCrypt work to the hashing pool; the lookup and any
+        // rehash UPDATE run here.
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(user.getEmail(), user.getPassword()));
+        AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
         String token = Jwts.builder()
-                .setSubject(authentication.getName())
+                .setSubject(principal.getUsername())
+                .claim(AuthenticatedUser.CLAIM_USER_ID, principal.getId())
+                .claim(AuthenticatedUser.CLAIM_AUTHORITIES, principal.getAuthoritiesClaim())
                 .setIssuedAt(new java.util.Date())
                 .setExpiration(new java.util.Date(System.currentTimeMillis() + jwtExpiration))
                 .signWith(SignatureAlgorithm.HS512, jwtSecret)
                 .compact();
+        eventPublisher.publishEvent(new UserLoggedInEvent(principal.getId()));
         return ResponseEntity.ok(token);
     }
 
-
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<?> hashingCapacityExceeded(HashingCapacityExceededException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
 }
-
@@ -1,86 +1,322 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.AuthenticatedUser;
+import com.example.demo.config.StatementBudget;
+import com.example.demo.dto.BatchRequestDTO;
+import com.example.demo.dto.BatchResponseDTO;
+import com.example.demo.dto.CompleteTasksResponseDTO;
 import com.example.demo.dto.CreateTaskDTO;
+import com.example.demo.dto.ImportResultDTO;
 import com.example.demo.dto.ResponseTaskDTO;
-import com.example.demo.model.Task;
-import com.example.demo.model.User;
-import com.example.demo.repository.TaskRepository;
-import com.example.demo.repository.UserRepository;
+import com.example.demo.dto.TaskCursor;
+import com.example.demo.dto.TaskStatsDTO;
+import com.example.demo.service.TaskEventHub;
+import com.example.demo.service.TaskExporter;
+import com.example.demo.service.TaskImporter;
+import com.example.demo.service.TaskService;
+import com.example.demo.service.TaskStatsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("/api/tasks")
 public class TaskController {
 
-    private final TaskRepository taskRepository;
-    private final UserRepository userRepository;
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
-    public TaskController(TaskRepository taskRepository, UserRepository userRepository) {
-        this.taskRepository = taskRepository;
-        this.userRepository = userRepository;
+    // Lets browsers keep the list and revalidate it with If-None-Match instead of refetching.
+    private static final CacheControl TASK_LIST_CACHE = CacheControl.noCache().cachePrivate();
+
+    private final TaskService taskService;
+    private final TaskEventHub taskEventHub;
+    private final TaskStatsService taskStatsService;
+    private final TaskExporter taskExporter;
+    private final TaskImporter taskImporter;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxBatchSize;
+
+    public TaskController(TaskService taskService,
+                          TaskEventHub taskEventHub,
+                          TaskStatsService taskStatsService,
+                          TaskExporter taskExporter,
+                          TaskImporter taskImporter,
+                          @Value("${tasks.page.default-size}") int defaultPageSize,
+                          @Value("${tasks.page.max-size}") int maxPageSize,
+                          @Value("${tasks.batch.max-size}") int maxBatchSize) {
+        this.taskService = taskService;
+        this.taskEventHub = taskEventHub;
+        this.taskStatsService = taskStatsService;
+        this.taskExporter = taskExporter;
+        this.taskImporter = taskImporter;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchSize = maxBatchSize;
     }
 
+    @StatementBudget(8)
     @PostMapping
-    public ResponseEntity<ResponseTaskDTO> createTask(@RequestBody CreateTaskDTO createTaskDTO) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email).orElseThrow();
+    public ResponseEntity<ResponseTaskDTO> createTask(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                      @RequestBody CreateTaskDTO createTaskDTO) {
+        return ResponseEntity.ok(taskService.createTask(principal.getId(), createTaskDTO));
+    }
 
-        Task task = new Task();
-        task.setTitle(createTaskDTO.getTitle());
-        task.setDescription(createTaskDTO.getDescription());
-        task.setUser(user);
-        task.setCreatedAt(LocalDateTime.now());
-        Task savedTask = taskRepository.save(task);
+    /**
+     * Returns one page of the user's tasks, newest first. {@code status} is one of
+     * {@code open} (default), {@code completed} or {@code all}. When more tasks follow, the
+     * response carries an {@value #NEXT_CURSOR_HEADER} header to pass back as {@code cursor}.
+     * The ETag changes whenever any of the user's tasks change and differs per page and filter,
+     * so a matching {@code If-None-Match} is answered with 304 before any task is read.
+     */
+    @StatementBudget(3)
+    @GetMapping
+    public ResponseEntity<List<ResponseTaskDTO>> getTasks(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer size,
+                                                          @RequestParam(defaultValue = "open") String status,
+                                                          @RequestHeader HttpHeaders requestHeaders) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        Boolean completed = parseStatus(status);
+        TaskCursor after = parseCursor(cursor);
 
-        ResponseTaskDTO responseDTO = new ResponseTaskDTO();
-        responseDTO.setId(savedTask.getId());
-        responseDTO.setTitle(savedTask.getTitle());
-        responseDTO.setDescription(savedTask.getDescription());
-        responseDTO.setCompleted(savedTask.isCompleted());
-        responseDTO.setCreatedAt(savedTask.getCreatedAt());
+        String etag = taskListETag(principal.getId(), taskService.getTaskListVersion(principal.getId()),
+                completed, after, pageSize);
+        List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+        if (ifNoneMatch.contains(etag) || ifNoneMatch.contains("*")) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(TASK_LIST_CACHE).build();
+        }
 
-        return ResponseEntity.ok(responseDTO);
+        List<ResponseTaskDTO> tasks = taskService.getTasks(principal.getId(), completed, after, Limit.of(pageSize + 1));
+        boolean hasMore = tasks.size() > pageSize;
+        if (hasMore) {
+            tasks = tasks.subList(0, pageSize);
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag).cacheControl(TASK_LIST_CACHE);
+        if (hasMore) {
+            ResponseTaskDTO last = tasks.get(tasks.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, new TaskCursor(last.getCreatedAt(), last.getId()).encode());
+        }
+        return response.body(tasks);
     }
 
-    @GetMapping
-    public ResponseEntity<List<ResponseTaskDTO>> getTasks() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email).orElseThrow();
+    /**
+     * Returns one page of the user's archived tasks, completed tasks that were moved out of the
+     * task lists once old enough, newest first and paged like {@link #getTasks}. Reads go
+     * straight to the archive table, without caching or ETags.
+     */
+    @StatementBudget(1)
+    @GetMapping("/archive")
+    public ResponseEntity<List<ResponseTaskDTO>> getArchivedTasks(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        List<ResponseTaskDTO> tasks = taskService.getArchivedTasks(principal.getId(), parseCursor(cursor),
+                Limit.of(pageSize + 1));
+        boolean hasMore = tasks.size() > pageSize;
+        if (hasMore) {
+            tasks = tasks.subList(0, pageSize);
+        }
 
-        List<Task> tasks = taskRepository.findTop5ByUserAndCompletedFalseOrderByCreatedAtDesc(user);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (hasMore) {
+            ResponseTaskDTO last = tasks.get(tasks.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, new TaskCursor(last.getCreatedAt(), last.getId()).encode());
+        }
+        return response.body(tasks);
+    }
+
+    /**
+     * Returns the user's tasks matching every word of {@code q} (as a prefix), best match first.
+     * {@code status} is {@code all} (default), {@code open} or {@code completed}.
+     */
+    // A user's first search also loads their index; later ones only read the matching tasks.
+    @StatementBudget(2)
+    @GetMapping("/search")
+    public ResponseEntity<List<ResponseTaskDTO>> searchTasks(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                             @RequestParam String q,
+                                                             @RequestParam(required = false) Integer size,
+                                                             @RequestParam(defaultValue = "all") String status) {
+        int limit = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        return ResponseEntity.ok(taskService.searchTasks(principal.getId(), q, parseStatus(status), limit));
+    }
+
+    /**
+     * Returns the user's open and completed task counts and how many tasks they created on each
+     * of the last {@code days} days, from counters kept up to date by every write.
+     */
+    // Task version, counters and daily counts. A user's first read also builds the counters,
+    // outside this budget.
+    @StatementBudget(3)
+    @GetMapping("/stats")
+    public ResponseEntity<TaskStatsDTO> getStats(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                 @RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(taskStatsService.getStats(principal.getId(), days));
+    }
+
+    /**
+     * Downloads every task the user has, archived ones included, as {@code ndjson} (default) or
+     * {@code csv}. The file is written while it is read from the database, so it is never held
+     * in memory; 429 when too many exports are already running.
+     */
+    // The export reads the database on the async executor, outside the request's count.
+    @StatementBudget(0)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                             @RequestParam(defaultValue = "ndjson") String format,
+                                                             NativeWebRequest request) {
+        TaskExporter.Format exportFormat = parseFormat(format);
+        ContentDisposition attachment = ContentDisposition.attachment()
+                .filename("tasks." + exportFormat.getExtension())
+                .build();
+        TaskExporter.Export export = taskExporter.open(principal.getId(), exportFormat);
+        if (export == null) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        // Runs however the request ends, including a timeout before the export got a thread.
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(export, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                export.close();
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment.toString())
+                .cacheControl(CacheControl.noStore())
+                .body(export);
+    }
 
-        List<ResponseTaskDTO> taskDTOs = tasks.stream().map(task -> {
-            ResponseTaskDTO dto = new ResponseTaskDTO();
-            dto.setId(task.getId());
-            dto.setTitle(task.getTitle());
-            dto.setDescription(task.getDescription());
-            dto.setCompleted(task.isCompleted());
-            dto.setCreatedAt(task.getCreatedAt());
-            return dto;
-        }).collect(Collectors.toList());
+    /**
+     * Creates tasks from an NDJSON body, one object per line with {@code title} and optionally
+     * {@code description}, {@code completed}, {@code createdAt} and {@code completedAt}. The body
+     * is read and committed in chunks as it arrives. Invalid lines are skipped and listed in the
+     * result; 400 with the result when malformed JSON stopped the import part way.
+     */
+    // Every chunk is its own transaction, so statements grow with the upload.
+    @StatementBudget(value = StatementBudget.UNLIMITED, maxRepeats = StatementBudget.UNLIMITED)
+    @PostMapping("/import")
+    public ResponseEntity<ImportResultDTO> importTasks(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                       InputStream body) throws IOException {
+        ImportResultDTO result = taskImporter.importTasks(principal.getId(), body);
+        return result.isAborted() ? ResponseEntity.badRequest().body(result) : ResponseEntity.ok(result);
+    }
 
-        return ResponseEntity.ok(taskDTOs);
+    /**
+     * Streams the user's task changes as server-sent events: {@code task-created} with the new
+     * task, {@code task-completed} with its id, and {@code sync} whenever the client should
+     * refetch. Event ids are task versions, so a reconnecting client's {@code Last-Event-ID}
+     * tells whether it missed anything.
+     */
+    @StatementBudget(1)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTasks(@AuthenticationPrincipal AuthenticatedUser principal,
+                                  @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return taskEventHub.subscribe(principal.getId(), lastEventId);
     }
 
+    @StatementBudget(4)
     @PutMapping("/{id}/complete")
-    public ResponseEntity<?> completeTask(@PathVariable Long id) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email).orElseThrow();
+    public ResponseEntity<?> completeTask(@AuthenticationPrincipal AuthenticatedUser principal,
+                                          @PathVariable Long id) {
+        if (!taskService.completeTask(principal.getId(), id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
 
-        Task task = taskRepository.findById(id)
-                .filter(t -> t.getUser().getId().equals(user.getId()))
-                .orElseThrow(() -> new RuntimeException("Task not found"));
+    /**
+     * Completes every listed task the caller owns in a single UPDATE. Ids that do not exist,
+     * belong to someone else or are already completed are skipped; the response reports how many
+     * rows changed.
+     */
+    @StatementBudget(4)
+    @PutMapping("/complete")
+    public ResponseEntity<CompleteTasksResponseDTO> completeTasks(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                                  @RequestBody List<Long> ids) {
+        requireIds(ids);
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.size() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxBatchSize + " ids per request");
+        }
+        int completed = taskService.completeTasks(principal.getId(), distinctIds);
+        return ResponseEntity.ok(new CompleteTasksResponseDTO(distinctIds.size(), completed));
+    }
 
-        task.setCompleted(true);
-        taskRepository.save(task);
+    /**
+     * Applies many creates and completes in one transaction, for clients syncing offline edits.
+     * At most {@code tasks.batch.max-size} items in total are accepted per request.
+     */
+    // A full batch of creates fetches ten blocks of ids and sends ten insert batches.
+    @StatementBudget(value = 30, maxRepeats = 10)
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResponseDTO> applyBatch(@AuthenticationPrincipal AuthenticatedUser principal,
+                                                       @RequestBody BatchRequestDTO batchRequestDTO) {
+        requireIds(batchRequestDTO.getComplete());
+        int items = batchRequestDTO.getCreate().size() + batchRequestDTO.getComplete().size();
+        if (items > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxBatchSize + " items per batch");
+        }
+        return ResponseEntity.ok(taskService.applyBatch(principal.getId(), batchRequestDTO));
+    }
 
-        return ResponseEntity.ok().build();
+    static String taskListETag(Long userId, String version, Boolean completed, TaskCursor after, int pageSize) {
+        String query = completed + "|" + (after == null ? "" : after.encode()) + "|" + pageSize;
+        return "\"" + userId + "-" + version + "-" + Integer.toHexString(query.hashCode()) + "\"";
+    }
+
+    private static void requireIds(List<Long> ids) {
+        if (ids.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Task ids must not be null");
+        }
     }
-}
 
+    private static Boolean parseStatus(String status) {
+        return switch (status) {
+            case "open" -> Boolean.FALSE;
+            case "completed" -> Boolean.TRUE;
+            case "all" -> null;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown status: " + status);
+        };
+    }
+
+    private static TaskExporter.Format parseFormat(String format) {
+        return switch (format) {
+            case "ndjson" -> TaskExporter.Format.NDJSON;
+            case "csv" -> TaskExporter.Format.CSV;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown format: " + format);
+        };
+    }
+
+    private static TaskCursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return TaskCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.demo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-item outcome of a batch, in request order: {@code created} holds one task per create
+ * item and {@code completed} one result per complete item.
+ */
+public class BatchResponseDTO {
+    private List<ResponseTaskDTO> created = new ArrayList<>();
+    private List<CompleteResultDTO> completed = new ArrayList<>();
+
+    public List<ResponseTaskDTO> getCreated() {
+        return created;
+    }
+    public void setCreated(List<ResponseTaskDTO> created) {
+        this.created = created;
+    }
+    public List<CompleteResultDTO> getCompleted() {
+        return completed;
+    }
+    public void setCompleted(List<CompleteResultDTO> completed) {
+        this.completed = completed;
+    }
+
+    public static class CompleteResultDTO {
+        public static final String COMPLETED = "completed";
+        public static final String NOT_FOUND = "not_found";
+
+        private Long id;
+        private String status;
+
+        public CompleteResultDTO() {
+        }
+
+        public CompleteResultDTO(Long id, String status) {
+            this.id = id;
+            this.status = status;
+        }
+
+        public Long getId() {
+            return id;
+        }
+        public void setId(Long id) {
+            this.id = id;
+        }
+        public String getStatus() {
+            return status;
+        }
+        public void setStatus(String status) {
+            this.status = status;
+        }
+    }
+}
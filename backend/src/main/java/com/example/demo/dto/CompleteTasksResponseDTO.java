@@ -0,0 +1,27 @@
+package com.example.demo.dto;
+
+public class CompleteTasksResponseDTO {
+    private int requested;
+    private int completed;
+
+    public CompleteTasksResponseDTO() {
+    }
+
+    public CompleteTasksResponseDTO(int requested, int completed) {
+        this.requested = requested;
+        this.completed = completed;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+    public int getCompleted() {
+        return completed;
+    }
+    public void setCompleted(int completed) {
+        this.completed = completed;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of an NDJSON import. {@code createdAt} defaults to the time of the import and
+ * {@code completedAt}, for completed tasks, to {@code createdAt}.
+ */
+public class ImportTaskDTO extends CreateTaskDTO {
+    private boolean completed;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+
+    public boolean isCompleted() {
+        return completed;
+    }
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
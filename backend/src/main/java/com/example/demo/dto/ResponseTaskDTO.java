@@ -10,6 +10,21 @@ public class ResponseTaskDTO {
     private LocalDateTime createdAt;
     private Long userId;
 
+    public ResponseTaskDTO() {
+    }
+
+    /**
+     * Used by JPQL constructor expressions in {@code TaskRepository}, so list queries build
+     * responses directly from columns without hydrating {@code Task} entities.
+     */
+    public ResponseTaskDTO(Long id, String title, String description, boolean completed, LocalDateTime createdAt) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.completed = completed;
+        this.createdAt = createdAt;
+    }
+
     public Long getId() {
         return id;
     }
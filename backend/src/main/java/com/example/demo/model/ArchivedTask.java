@@ -0,0 +1,54 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A completed task moved out of {@code task} by {@code TaskArchiver}. Keeps the task's id; the
+ * owner is a plain column so archiving never touches {@code app_user}.
+ */
+@Entity
+@Table(name = "task_archive", indexes = {
+        @Index(name = "idx_task_archive_user_created", columnList = "user_id, created_at DESC, id DESC"),
+        @Index(name = "idx_task_archive_completed_at", columnList = "completed_at")
+})
+public class ArchivedTask {
+
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    private String title;
+
+    private String description;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime completedAt;
+
+    private LocalDateTime archivedAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+    public void setArchivedAt(LocalDateTime archivedAt) { this.archivedAt = archivedAt; }
+}
@@ -5,10 +5,19 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_task_user_completed_created", columnList = "user_id, completed, created_at DESC, id DESC"),
+        @Index(name = "idx_task_user_created", columnList = "user_id, created_at DESC, id DESC"),
+        @Index(name = "idx_task_completed_at", columnList = "completed, completed_at")
+})
 public class Task {
 
+    // Pooled sequence (same name and increment Hibernate picked implicitly for AUTO) so ids are
+    // allocated 50 at a time in memory and inserts can be sent as JDBC batches. Ids are unique on
+    // their own, even though the partitioned table's primary key is (id, user_id).
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -19,8 +28,12 @@ public class Task {
 
     private LocalDateTime createdAt;
 
+    // Set by the complete UPDATEs; TaskArchiver moves tasks to task_archive once it is old enough.
+    private LocalDateTime completedAt;
+
+    // The partition key once TaskPartitionMigrator has run, so it never changes after insert.
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id", nullable = false)
+    @JoinColumn(name = "user_id", nullable = false, updatable = false)
     private User user;
 
     public Long getId() { return id; }
@@ -38,6 +51,9 @@ public class Task {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
 
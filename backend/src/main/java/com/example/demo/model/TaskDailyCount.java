@@ -0,0 +1,69 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Number of tasks a user created on one day, by the server's local date.
+ */
+@Entity
+@Table(name = "task_daily_count")
+@IdClass(TaskDailyCount.Key.class)
+public class TaskDailyCount {
+
+    @Id
+    private Long userId;
+
+    // Quoted because DAY is a keyword in H2; PostgreSQL folds the unquoted name to the same column.
+    @Id
+    @Column(name = "\"day\"")
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private long createdCount;
+
+    public TaskDailyCount() {
+    }
+
+    public TaskDailyCount(Long userId, LocalDate day, long createdCount) {
+        this.userId = userId;
+        this.day = day;
+        this.createdCount = createdCount;
+    }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public long getCreatedCount() { return createdCount; }
+    public void setCreatedCount(long createdCount) { this.createdCount = createdCount; }
+
+    public static class Key implements Serializable {
+
+        private Long userId;
+        private LocalDate day;
+
+        public Key() {
+        }
+
+        public Key(Long userId, LocalDate day) {
+            this.userId = userId;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(userId, key.userId) && Objects.equals(day, key.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, day);
+        }
+    }
+}
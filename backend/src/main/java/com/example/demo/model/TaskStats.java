@@ -0,0 +1,39 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Running totals of a user's tasks. Maintained in the same transaction as every task write and
+ * checked against the task table by {@code TaskStatsService}'s reconciliation job.
+ */
+@Entity
+@Table(name = "task_stats")
+public class TaskStats {
+
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private long openCount;
+
+    @Column(nullable = false)
+    private long completedCount;
+
+    public TaskStats() {
+    }
+
+    public TaskStats(Long userId, long openCount, long completedCount) {
+        this.userId = userId;
+        this.openCount = openCount;
+        this.completedCount = completedCount;
+    }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public long getOpenCount() { return openCount; }
+    public void setOpenCount(long openCount) { this.openCount = openCount; }
+
+    public long getCompletedCount() { return completedCount; }
+    public void setCompletedCount(long completedCount) { this.completedCount = completedCount; }
+}
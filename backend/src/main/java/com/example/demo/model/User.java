@@ -2,14 +2,19 @@ package com.example.demo.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 import java.util.List;
 
 @Entity
 @Table(name = "app_user")
+@DynamicUpdate
 public class User {
 
+    // Allocated like Task ids, from its own sequence.
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -21,6 +26,14 @@ public class User {
     @Column(nullable = false)
     private String fullName;
 
+    // Bumped with every change to the user's tasks; backs the ETag on GET /api/tasks. Only ever
+    // written by UserRepository.incrementTaskVersion: inserts and saves of a User leave the
+    // column alone, and it is never read from or written to a request body.
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private long taskVersion;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Task> tasks;
 
@@ -36,6 +49,9 @@ public class User {
     public String getFullName() { return fullName; }
     public void setFullName(String fullName) { this.fullName = fullName; }
 
+    public long getTaskVersion() { return taskVersion; }
+    public void setTaskVersion(long taskVersion) { this.taskVersion = taskVersion; }
+
     public List<Task> getTasks() { return tasks; }
     public void setTasks(List<Task> tasks) { this.tasks = tasks; }
 }
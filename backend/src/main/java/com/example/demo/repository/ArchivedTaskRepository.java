@@ -0,0 +1,73 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.DailyCountDTO;
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.model.ArchivedTask;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, Long> {
+
+    // Keyset pages in the same order as TaskRepository's, served by idx_task_archive_user_created.
+
+    String PAGE_SELECT = "select new com.example.demo.dto.ResponseTaskDTO("
+            + "a.id, a.title, a.description, true, a.createdAt) from ArchivedTask a";
+
+    @Transactional(readOnly = true)
+    @Query(PAGE_SELECT + " where a.userId = :userId order by a.createdAt desc, a.id desc")
+    List<ResponseTaskDTO> findPage(@Param("userId") Long userId, Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query(PAGE_SELECT + " where a.userId = :userId"
+            + " and a.createdAt <= :createdAt and (a.createdAt < :createdAt or a.id < :id)"
+            + " order by a.createdAt desc, a.id desc")
+    List<ResponseTaskDTO> findPageAfter(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id, Limit limit);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PAGE_SELECT + " where a.userId = :userId order by a.id")
+    Stream<ResponseTaskDTO> streamByUser(@Param("userId") Long userId);
+
+    // Archived tasks still count as completed in TaskStatsService.
+
+    @Transactional(readOnly = true)
+    long countByUserId(Long userId);
+
+    @Transactional(readOnly = true)
+    @Query("select new com.example.demo.dto.DailyCountDTO(cast(a.createdAt as LocalDate), count(a))"
+            + " from ArchivedTask a where a.userId = :userId and a.createdAt >= :from"
+            + " group by cast(a.createdAt as LocalDate) order by cast(a.createdAt as LocalDate)")
+    List<DailyCountDTO> countCreatedPerDay(@Param("userId") Long userId, @Param("from") LocalDateTime from);
+
+    /**
+     * Copies the given tasks into the archive in one INSERT ... SELECT; the caller deletes them
+     * from {@code task} in the same transaction.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("insert into ArchivedTask (id, userId, title, description, createdAt, completedAt, archivedAt)"
+            + " select t.id, t.user.id, t.title, t.description, t.createdAt, t.completedAt, local datetime"
+            + " from Task t where t.id in :ids")
+    int copyFromTasks(@Param("ids") Collection<Long> ids);
+
+    @Transactional(readOnly = true)
+    @Query("select a.id from ArchivedTask a where a.completedAt < :cutoff order by a.completedAt")
+    List<Long> findPurgeableIds(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query("select a.userId from ArchivedTask a where a.id in :ids")
+    List<Long> findUserIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,33 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.TaskDailyCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface TaskDailyCountRepository extends JpaRepository<TaskDailyCount, TaskDailyCount.Key> {
+
+    @Transactional(readOnly = true)
+    List<TaskDailyCount> findByUserIdAndDayGreaterThanEqualOrderByDayAsc(Long userId, LocalDate from);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update TaskDailyCount d set d.createdCount = d.createdCount + :count"
+            + " where d.userId = :userId and d.day = :day")
+    int addCreated(@Param("userId") Long userId, @Param("day") LocalDate day, @Param("count") long count);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from TaskDailyCount d where d.userId = :userId")
+    int deleteByUser(@Param("userId") Long userId);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from TaskDailyCount d where d.userId = :userId and d.day < :day")
+    int deleteByUserBefore(@Param("userId") Long userId, @Param("day") LocalDate day);
+}
@@ -1,11 +1,142 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.DailyCountDTO;
+import com.example.demo.dto.ResponseTaskDTO;
 import com.example.demo.model.Task;
 import com.example.demo.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TaskRepository extends JpaRepository<Task, Long> {
     List<Task> findTop5ByUserAndCompletedFalseOrderByCreatedAtDesc(User user);
+
+    // Keyset pages ordered by (createdAt desc, id desc), served by idx_task_user_completed_created
+    // and idx_task_user_created. The redundant createdAt <= bound keeps the scan a single index range.
+    // Pages are projected straight into ResponseTaskDTO in read-only transactions, so no managed
+    // entities, user proxies or dirty-checking snapshots are created.
+
+    String PAGE_SELECT = "select new com.example.demo.dto.ResponseTaskDTO("
+            + "t.id, t.title, t.description, t.completed, t.createdAt) from Task t";
+
+    @Transactional(readOnly = true)
+    @Query(PAGE_SELECT + " where t.user.id = :userId and t.completed = :completed"
+            + " order by t.createdAt desc, t.id desc")
+    List<ResponseTaskDTO> findPageByCompleted(@Param("userId") Long userId, @Param("completed") boolean completed,
+                                              Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query(PAGE_SELECT + " where t.user.id = :userId and t.completed = :completed"
+            + " and t.createdAt <= :createdAt and (t.createdAt < :createdAt or t.id < :id)"
+            + " order by t.createdAt desc, t.id desc")
+    List<ResponseTaskDTO> findPageByCompletedAfter(@Param("userId") Long userId, @Param("completed") boolean completed,
+                                                   @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                                   Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query(PAGE_SELECT + " where t.user.id = :userId order by t.createdAt desc, t.id desc")
+    List<ResponseTaskDTO> findPage(@Param("userId") Long userId, Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query(PAGE_SELECT + " where t.user.id = :userId"
+            + " and t.createdAt <= :createdAt and (t.createdAt < :createdAt or t.id < :id)"
+            + " order by t.createdAt desc, t.id desc")
+    List<ResponseTaskDTO> findPageAfter(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id, Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query(PAGE_SELECT + " where t.id in :ids and t.user.id = :userId")
+    List<ResponseTaskDTO> findByIds(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    @Transactional(readOnly = true)
+    @Query("select t.id from Task t where t.id in :ids and t.user.id = :userId")
+    List<Long> findOwnedIds(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    // Streaming scans for the search index. They must run inside the caller's transaction, and
+    // the fetch size keeps the driver from buffering the whole result set.
+
+    String TEXT_SELECT = "select new com.example.demo.repository.TaskText("
+            + "t.user.id, t.id, t.title, t.description, t.completed) from Task t";
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(TEXT_SELECT + " where t.user.id = :userId")
+    Stream<TaskText> streamTextByUser(@Param("userId") Long userId);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(TEXT_SELECT + " order by t.user.id")
+    Stream<TaskText> streamAllText();
+
+    // Forward-only cursor for TaskExporter; must be consumed inside a transaction. Rows are
+    // projected, so nothing accumulates in the persistence context however many there are.
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(PAGE_SELECT + " where t.user.id = :userId order by t.id")
+    Stream<ResponseTaskDTO> streamByUser(@Param("userId") Long userId);
+
+    // Recounts used by TaskStatsService's reconciliation job.
+
+    @Transactional(readOnly = true)
+    long countByUserIdAndCompleted(Long userId, boolean completed);
+
+    @Transactional(readOnly = true)
+    @Query("select new com.example.demo.dto.DailyCountDTO(cast(t.createdAt as LocalDate), count(t)) from Task t"
+            + " where t.user.id = :userId and t.createdAt >= :from"
+            + " group by cast(t.createdAt as LocalDate) order by cast(t.createdAt as LocalDate)")
+    List<DailyCountDTO> countCreatedPerDay(@Param("userId") Long userId, @Param("from") LocalDateTime from);
+
+    @Transactional(readOnly = true)
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    // Chunk selection for TaskArchiver, served by idx_task_completed_at.
+
+    @Transactional(readOnly = true)
+    @Query("select t.id from Task t where t.completed = true and t.completedAt < :cutoff order by t.completedAt")
+    List<Long> findArchivableIds(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query("select t.id from Task t where t.completed = true and t.completedAt is null")
+    List<Long> findUndatedCompletedIds(Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query("select t.user.id from Task t where t.id in :ids")
+    List<Long> findUserIds(@Param("ids") Collection<Long> ids);
+
+    // Tasks completed before completedAt existed, or by a writer that does not set it, are dated
+    // by their creation time.
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update Task t set t.completedAt = coalesce(t.createdAt, local datetime)"
+            + " where t.id in :ids and t.completedAt is null")
+    int backfillCompletedAt(@Param("ids") Collection<Long> ids);
+
+    // Ownership is part of the WHERE clause, so the affected row count tells a missing or foreign
+    // task (0) apart from a completed one without loading the task or its user. Tasks that are
+    // already completed are not counted either, so the count is exactly the number of open tasks
+    // that became completed, which is what TaskStatsService needs.
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update Task t set t.completed = true, t.completedAt = local datetime"
+            + " where t.id = :id and t.user.id = :userId and t.completed = false")
+    int completeTask(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update Task t set t.completed = true, t.completedAt = local datetime"
+            + " where t.id in :ids and t.user.id = :userId and t.completed = false")
+    int completeTasks(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
 }
@@ -0,0 +1,29 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.TaskStats;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface TaskStatsRepository extends JpaRepository<TaskStats, Long> {
+
+    @Transactional(readOnly = true)
+    @Query("select s.userId from TaskStats s where s.userId > :after order by s.userId")
+    List<Long> findUserIdsAfter(@Param("after") Long after, Limit limit);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update TaskStats s set s.openCount = s.openCount + :created - :completed,"
+            + " s.completedCount = s.completedCount + :completed where s.userId = :userId")
+    int addCounts(@Param("userId") Long userId, @Param("created") long created, @Param("completed") long completed);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update TaskStats s set s.completedCount = s.completedCount - :count where s.userId = :userId")
+    int removeCompleted(@Param("userId") Long userId, @Param("count") long count);
+}
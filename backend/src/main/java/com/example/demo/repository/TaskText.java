@@ -0,0 +1,7 @@
+package com.example.demo.repository;
+
+/**
+ * The searchable columns of a task, read by the streaming scans that build the search index.
+ */
+public record TaskText(Long userId, Long id, String title, String description, boolean completed) {
+}
@@ -1,10 +1,38 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    @Transactional(readOnly = true)
+    @Query("select u.taskVersion from User u where u.id = :id")
+    Optional<Long> findTaskVersion(@Param("id") Long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update User u set u.taskVersion = u.taskVersion + 1 where u.id = :id")
+    int incrementTaskVersion(@Param("id") Long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update User u set u.password = :password where u.email = :email")
+    int updatePassword(@Param("email") String email, @Param("password") String password);
+
+    /**
+     * Locks the user's row for the rest of the caller's transaction, the same lock a task write
+     * takes when it bumps the task version.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from User u where u.id = :id")
+    Optional<User> lockById(@Param("id") Long id);
 }
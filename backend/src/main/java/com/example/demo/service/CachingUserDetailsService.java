@@ -0,0 +1,81 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.BoundedCache;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the users returned by {@link CustomUserDetailsService}. Entries expire after a
+ * fixed TTL and are dropped as soon as a {@link UserCredentialsChangedEvent} is published
+ * or the stored password is re-encoded. Unknown users are never cached.
+ */
+public class CachingUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private final CustomUserDetailsService delegate;
+    private final BoundedCache<String, UserDetails> cache;
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    public CachingUserDetailsService(CustomUserDetailsService delegate, int maxSize, Duration ttl) {
+        this.delegate = delegate;
+        this.cache = new BoundedCache<>(maxSize, ttl);
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        if (username == null) {
+            return delegate.loadUserByUsername(null);
+        }
+        UserDetails cached = cache.get(username);
+        if (cached != null) {
+            return cached;
+        }
+        long start = System.nanoTime();
+        try {
+            UserDetails user = delegate.loadUserByUsername(username);
+            cache.put(username, user);
+            return user;
+        } finally {
+            loads.increment();
+            loadNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserDetails updated = delegate.updatePassword(user, newPassword);
+        cache.invalidate(user.getUsername());
+        return updated;
+    }
+
+    @EventListener
+    public void onCredentialsChanged(UserCredentialsChangedEvent event) {
+        if (event.email() != null) {
+            cache.invalidate(event.email());
+        }
+    }
+
+    public BoundedCache<String, UserDetails> getCache() {
+        return cache;
+    }
+
+    public double getHitRatio() {
+        return cache.hitRatio();
+    }
+
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    public double getAverageLoadMillis() {
+        long count = loads.sum();
+        return count == 0 ? 0.0 : loadNanos.sum() / (count * 1_000_000.0);
+    }
+}
@@ -0,0 +1,436 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.TaskRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind path for single task completions ({@code tasks.write-behind.enabled}).
+ * A completion is appended to a local journal and fsynced before it is acknowledged, then
+ * applied together with everything else queued as one {@code UPDATE ... WHERE id IN (...)} per
+ * user, every {@code tasks.write-behind.flush-interval} ms or as soon as
+ * {@code tasks.write-behind.batch-size} completions are waiting. Completions that arrive while
+ * the journal is being synced share the next sync (group commit). Entries left in the journal
+ * by a crash are replayed on startup. Until a completion is committed, {@link #pendingFor} exposes
+ * it so reads can overlay it on what the database returns.
+ */
+@Component
+public class CompletionWriteBehindQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(CompletionWriteBehindQueue.class);
+
+    private final TaskRepository taskRepository;
+    private final TaskVersionStore taskVersionStore;
+    private final TaskStatsService taskStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Path journal;
+    private final int batchSize;
+
+    // Guards the queue itself and is never held across file I/O. Where both are needed,
+    // journalLock is taken first. appendLock only guards the group being collected and is never
+    // held while taking the others.
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Condition groupSynced = appendLock.newCondition();
+    private JournalGroup collecting = new JournalGroup();
+    private boolean syncing;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Map<Long, Set<Long>> pending = new HashMap<>();
+    private final Map<Long, Set<Long>> flushing = new HashMap<>();
+    // Written under lock, read without it: per user, an immutable copy of pending and flushing
+    // combined, and the sequence number of the newest completion not yet committed.
+    private final Map<Long, Set<Long>> outstanding = new ConcurrentHashMap<>();
+    private final Map<Long, Long> stamps = new ConcurrentHashMap<>();
+    private long sequence;
+    private int pendingCount;
+    private int flushingCount;
+    private FileChannel journalChannel;
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("task-write-behind").daemon().factory());
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    public CompletionWriteBehindQueue(TaskRepository taskRepository,
+                                      TaskVersionStore taskVersionStore,
+                                      TaskStatsService taskStatsService,
+                                      ApplicationEventPublisher eventPublisher,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${tasks.write-behind.enabled}") boolean enabled,
+                                      @Value("${tasks.write-behind.journal}") String journal,
+                                      @Value("${tasks.write-behind.flush-interval}") long flushIntervalMillis,
+                                      @Value("${tasks.write-behind.batch-size}") int batchSize) {
+        this.taskRepository = taskRepository;
+        this.taskVersionStore = taskVersionStore;
+        this.taskStatsService = taskStatsService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.journal = Path.of(journal);
+        this.batchSize = batchSize;
+        if (enabled) {
+            recover();
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a completion durably and returns; the database is updated by a later flush.
+     * The caller is expected to have checked that the task belongs to the user, and should not
+     * hold a transaction open while this waits for the journal to be synced.
+     */
+    public void enqueue(Long userId, Long taskId) {
+        if (!enabled) {
+            throw new IllegalStateException("Write-behind completion is disabled");
+        }
+        JournalGroup group;
+        appendLock.lock();
+        try {
+            group = collecting;
+            group.add(userId, taskId);
+            while (!group.done) {
+                if (syncing) {
+                    groupSynced.awaitUninterruptibly();
+                    continue;
+                }
+                // No sync is running, so this caller's group is the one being collected: seal
+                // it and sync it on behalf of everyone in it.
+                syncing = true;
+                JournalGroup sealed = collecting;
+                collecting = new JournalGroup();
+                appendLock.unlock();
+                boolean flushNow = false;
+                try {
+                    flushNow = commit(sealed);
+                } finally {
+                    appendLock.lock();
+                    sealed.done = true;
+                    syncing = false;
+                    groupSynced.signalAll();
+                }
+                if (flushNow) {
+                    flusher.execute(this::flushQuietly);
+                }
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        if (group.failure != null) {
+            throw group.failure;
+        }
+    }
+
+    /**
+     * Ids of the user's tasks that are acknowledged as completed but may not be committed yet.
+     */
+    public Set<Long> pendingFor(Long userId) {
+        if (!enabled) {
+            return Set.of();
+        }
+        return outstanding.getOrDefault(userId, Set.of());
+    }
+
+    /**
+     * Changes whenever a completion is queued for the user, and is 0 once none is outstanding.
+     * Together with the task version it identifies what a read of the user's tasks returns.
+     */
+    public long stampFor(Long userId) {
+        if (!enabled) {
+            return 0;
+        }
+        return stamps.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * Applies everything queued so far in one transaction. Completions whose transaction fails
+     * go back on the queue and stay in the journal.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, Set<Long>> batch;
+            lock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                // Users in ascending id order, the order TaskArchiver takes their row locks in.
+                batch = new TreeMap<>(pending);
+                pending.clear();
+                flushing.putAll(batch);
+                flushingCount = pendingCount;
+                pendingCount = 0;
+            } finally {
+                lock.unlock();
+            }
+
+            long start = System.nanoTime();
+            boolean committed = false;
+            try {
+                transactionTemplate.executeWithoutResult(status -> batch.forEach(this::apply));
+                committed = true;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                flushes.increment();
+                flushNanos.add(elapsed);
+                maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+                settle(batch, committed);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return pendingCount + flushingCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFlushCount() {
+        return flushes.sum();
+    }
+
+    public double getTotalFlushMillis() {
+        return flushNanos.sum() / 1e6;
+    }
+
+    public double getMaxFlushMillis() {
+        return maxFlushNanos.get() / 1e6;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!enabled) {
+            return;
+        }
+        flushQuietly();
+        journalLock.lock();
+        try {
+            journalChannel.close();
+        } catch (IOException e) {
+            log.warn("Could not close completion journal {}", journal, e);
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private void apply(Long userId, Set<Long> taskIds) {
+        int completed = taskRepository.completeTasks(taskIds, userId);
+        if (completed == 0) {
+            return;
+        }
+        long version = taskVersionStore.increment(userId);
+        taskStatsService.record(userId, List.of(), completed);
+        eventPublisher.publishEvent(completed == taskIds.size()
+                ? new TaskChangedEvent(userId, version, List.of(), List.copyOf(taskIds))
+                : new TaskChangedEvent(userId, version));
+    }
+
+    private void settle(Map<Long, Set<Long>> batch, boolean committed) {
+        journalLock.lock();
+        try {
+            StringBuilder entries = new StringBuilder();
+            lock.lock();
+            try {
+                flushing.clear();
+                flushingCount = 0;
+                if (!committed) {
+                    batch.forEach((userId, taskIds) -> {
+                        Set<Long> queued = pending.computeIfAbsent(userId, id -> new LinkedHashSet<>());
+                        for (Long taskId : taskIds) {
+                            if (queued.add(taskId)) {
+                                pendingCount++;
+                            }
+                        }
+                    });
+                }
+                batch.keySet().forEach(this::publish);
+                stamps.keySet().retainAll(pending.keySet());
+                pending.forEach((userId, taskIds) -> taskIds.forEach(taskId ->
+                        entries.append(userId).append(',').append(taskId).append('\n')));
+            } finally {
+                lock.unlock();
+            }
+            rewriteJournal(entries.toString());
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    /**
+     * Appends and syncs a group with one fsync, then queues its completions. Returns whether
+     * enough completions are waiting to flush now.
+     */
+    private boolean commit(JournalGroup group) {
+        journalLock.lock();
+        try {
+            try {
+                appendToJournal(group.entries.toString());
+            } catch (RuntimeException e) {
+                group.failure = e;
+                return false;
+            }
+            // Queued before journalLock is released, so a compaction cannot drop the entries.
+            lock.lock();
+            try {
+                for (int i = 0; i < group.userIds.size(); i++) {
+                    Long userId = group.userIds.get(i);
+                    if (pending.computeIfAbsent(userId, id -> new LinkedHashSet<>()).add(group.taskIds.get(i))) {
+                        pendingCount++;
+                    }
+                    publish(userId);
+                    stamps.put(userId, ++sequence);
+                }
+                return pendingCount >= batchSize;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    // Caller holds lock.
+    private void publish(Long userId) {
+        Set<Long> ids = new HashSet<>(pending.getOrDefault(userId, Set.of()));
+        ids.addAll(flushing.getOrDefault(userId, Set.of()));
+        if (ids.isEmpty()) {
+            outstanding.remove(userId);
+        } else {
+            outstanding.put(userId, Set.copyOf(ids));
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Flushing queued task completions failed; will retry", e);
+        }
+    }
+
+    private void recover() {
+        try {
+            Files.createDirectories(journal.toAbsolutePath().getParent());
+            if (Files.exists(journal)) {
+                String[] lines = Files.readString(journal, StandardCharsets.UTF_8).split("\n", -1);
+                // The last element follows the final newline: empty, or a torn append that was
+                // never acknowledged.
+                for (int i = 0; i < lines.length - 1; i++) {
+                    int separator = lines[i].indexOf(',');
+                    Long userId = Long.valueOf(lines[i].substring(0, separator));
+                    Long taskId = Long.valueOf(lines[i].substring(separator + 1));
+                    if (pending.computeIfAbsent(userId, id -> new LinkedHashSet<>()).add(taskId)) {
+                        pendingCount++;
+                    }
+                    stamps.put(userId, ++sequence);
+                }
+                pending.keySet().forEach(this::publish);
+                if (pendingCount > 0) {
+                    log.info("Replaying {} task completions from {}", pendingCount, journal);
+                }
+            }
+            journalChannel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open completion journal " + journal, e);
+        }
+    }
+
+    private void appendToJournal(String entries) {
+        try {
+            journalChannel.write(ByteBuffer.wrap(entries.getBytes(StandardCharsets.UTF_8)));
+            journalChannel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to completion journal " + journal, e);
+        }
+    }
+
+    /**
+     * Replaces the journal with what is still queued, via a temporary file and an atomic move,
+     * so a crash at any point leaves either the old or the new journal in place.
+     */
+    private void rewriteJournal(String entries) {
+        Path compacted = journal.resolveSibling(journal.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.wrap(entries.getBytes(StandardCharsets.UTF_8)));
+                channel.force(false);
+            }
+            Files.move(compacted, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            FileChannel previous = journalChannel;
+            journalChannel = FileChannel.open(journal, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            previous.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compact completion journal " + journal, e);
+        }
+    }
+
+    // Completions appended and synced together. Filled under appendLock; once sealed, only the
+    // caller syncing it touches it until it is done.
+    private static final class JournalGroup {
+        private final StringBuilder entries = new StringBuilder();
+        private final List<Long> userIds = new ArrayList<>();
+        private final List<Long> taskIds = new ArrayList<>();
+        private boolean done;
+        private RuntimeException failure;
+
+        void add(Long userId, Long taskId) {
+            entries.append(userId).append(',').append(taskId).append('\n');
+            userIds.add(userId);
+            taskIds.add(taskId);
+        }
+    }
+}
@@ -1,14 +1,15 @@
 package com.example.demo.service;
 
+import com.example.demo.config.AuthenticatedUser;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.stereotype.Service;
 
-@Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
 
     public CustomUserDetailsService(UserRepository userRepository) {
@@ -19,10 +20,20 @@ public class CustomUserDetailsService implements UserDetailsService {
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        return org.springframework.security.core.userdetails.User
-                .withUsername(user.getEmail())
-                .password(user.getPassword())
-                .authorities("USER")
-                .build();
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getPassword(),
+                AuthorityUtils.createAuthorityList("USER"));
+    }
+
+    // A targeted UPDATE, so a rehash at login never writes back other columns of the User it
+    // loaded earlier, such as a taskVersion bumped since.
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        if (userRepository.updatePassword(userDetails.getUsername(), newPassword) == 0) {
+            throw new UsernameNotFoundException("User not found: " + userDetails.getUsername());
+        }
+        Long id = userDetails instanceof AuthenticatedUser user
+                ? user.getId()
+                : ((AuthenticatedUser) loadUserByUsername(userDetails.getUsername())).getId();
+        return new AuthenticatedUser(id, userDetails.getUsername(), newPassword, userDetails.getAuthorities());
     }
 }
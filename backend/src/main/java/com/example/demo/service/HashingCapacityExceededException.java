@@ -0,0 +1,15 @@
+package com.example.demo.service;
+
+public class HashingCapacityExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public HashingCapacityExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.repository.TaskRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read-through cache of the first page of each user's open tasks, the view nearly every client
+ * asks for. Each entry is tagged with the task version it was read under and only served while
+ * that is still the user's current version, so a write is visible to the next read on this node
+ * even before the after-commit invalidation has run.
+ */
+@Component
+public class OpenTaskListCache {
+
+    private final TaskRepository taskRepository;
+    private final TaskVersionStore taskVersionStore;
+    private final BoundedCache<Long, Snapshot> snapshots;
+    private final int warmPageSize;
+    private final boolean warmOnLogin;
+
+    public OpenTaskListCache(TaskRepository taskRepository,
+                             TaskVersionStore taskVersionStore,
+                             @Value("${tasks.open-cache.max-size}") int maxSize,
+                             @Value("${tasks.open-cache.ttl}") long ttlMillis,
+                             @Value("${tasks.page.default-size}") int defaultPageSize,
+                             @Value("${tasks.open-cache.warm-on-login}") boolean warmOnLogin) {
+        this.taskRepository = taskRepository;
+        this.taskVersionStore = taskVersionStore;
+        this.snapshots = new BoundedCache<>(maxSize, Duration.ofMillis(ttlMillis));
+        // One extra row so the controller can tell whether a next page exists.
+        this.warmPageSize = defaultPageSize + 1;
+        this.warmOnLogin = warmOnLogin;
+    }
+
+    /**
+     * Returns up to {@code limit} of the user's newest open tasks. The version is read before
+     * the query, so a snapshot can only ever be tagged with a version older than its contents.
+     */
+    public List<ResponseTaskDTO> get(Long userId, Limit limit) {
+        long version = taskVersionStore.currentVersion(userId);
+        Snapshot snapshot = snapshots.get(userId);
+        if (snapshot != null && snapshot.version() == version && limit.max() <= snapshot.limit()) {
+            List<ResponseTaskDTO> tasks = snapshot.tasks();
+            return tasks.size() > limit.max() ? tasks.subList(0, limit.max()) : tasks;
+        }
+        List<ResponseTaskDTO> tasks = List.copyOf(taskRepository.findPageByCompleted(userId, false, limit));
+        snapshots.put(userId, new Snapshot(version, limit.max(), tasks));
+        return tasks;
+    }
+
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        snapshots.invalidate(event.userId());
+    }
+
+    @EventListener
+    public void onUserLoggedIn(UserLoggedInEvent event) {
+        if (warmOnLogin) {
+            get(event.userId(), Limit.of(warmPageSize));
+        }
+    }
+
+    public BoundedCache<Long, Snapshot> getCache() {
+        return snapshots;
+    }
+
+    public record Snapshot(long version, int limit, List<ResponseTaskDTO> tasks) {
+    }
+}
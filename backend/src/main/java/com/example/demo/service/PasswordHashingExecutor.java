@@ -0,0 +1,129 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs password hashing and verification on a small pool sized to the CPU count, so a login
+ * storm saturates this pool instead of every servlet worker. When the pool and its queue are
+ * full, or a hash waits longer than the configured timeout, callers get a
+ * {@link HashingCapacityExceededException} instead of queueing indefinitely.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final long retryAfterSeconds;
+
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public PasswordHashingExecutor(@Value("${auth.hashing.threads}") int threads,
+                                   @Value("${auth.hashing.queue-capacity}") int queueCapacity,
+                                   @Value("${auth.hashing.timeout}") long timeoutMillis,
+                                   @Value("${auth.hashing.retry-after}") long retryAfterSeconds) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMillis = timeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public <T> T execute(Callable<T> work) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timed(work));
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new HashingCapacityExceededException("Password hashing capacity exceeded", retryAfterSeconds);
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejections.increment();
+            throw new HashingCapacityExceededException("Password hashing timed out", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        }
+    }
+
+    private <T> T timed(Callable<T> work) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return work.call();
+        } finally {
+            hashes.increment();
+            hashNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    public int getPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public long getRejectedCount() {
+        return rejections.sum();
+    }
+
+    public long getHashCount() {
+        return hashes.sum();
+    }
+
+    public double getAverageHashMillis() {
+        long count = hashes.sum();
+        return count == 0 ? 0.0 : hashNanos.sum() / (count * 1_000_000.0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
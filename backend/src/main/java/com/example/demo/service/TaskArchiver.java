@@ -0,0 +1,206 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.ArchivedTaskRepository;
+import com.example.demo.repository.TaskRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Moves tasks completed more than {@code tasks.archive.after-days} ago from {@code task} to
+ * {@code task_archive}, so the hot table and its indexes only hold what the task lists show.
+ * With {@code tasks.archive.retention-days} set, archived tasks completed longer ago than that
+ * are deleted the same way. Every {@code tasks.archive.interval} ms the job works through
+ * chunks of {@code tasks.archive.chunk-size} tasks, one short transaction each, pausing
+ * {@code tasks.archive.chunk-pause} ms between chunks.
+ * <p>
+ * A chunk bumps the task version of every user it touches, in ascending id order, so lists,
+ * ETags and stats snapshots move on exactly as for any other write.
+ */
+@Component
+public class TaskArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskArchiver.class);
+
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final TaskVersionStore taskVersionStore;
+    private final TaskStatsService taskStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int archiveAfterDays;
+    private final int retentionDays;
+    private final int chunkSize;
+    private final long chunkPauseMillis;
+
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("task-archiver").daemon().factory());
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder purged = new LongAdder();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+
+    public TaskArchiver(TaskRepository taskRepository,
+                        ArchivedTaskRepository archivedTaskRepository,
+                        TaskVersionStore taskVersionStore,
+                        TaskStatsService taskStatsService,
+                        ApplicationEventPublisher eventPublisher,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${tasks.archive.enabled}") boolean enabled,
+                        @Value("${tasks.archive.after-days}") int archiveAfterDays,
+                        @Value("${tasks.archive.retention-days}") int retentionDays,
+                        @Value("${tasks.archive.chunk-size}") int chunkSize,
+                        @Value("${tasks.archive.chunk-pause}") long chunkPauseMillis,
+                        @Value("${tasks.archive.interval}") long intervalMillis) {
+        this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.taskVersionStore = taskVersionStore;
+        this.taskStatsService = taskStatsService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archiveAfterDays = archiveAfterDays;
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+        this.chunkPauseMillis = chunkPauseMillis;
+        if (enabled) {
+            worker.scheduleWithFixedDelay(this::runQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Archives, then purges, everything currently due. Returns early if interrupted.
+     */
+    public void run() throws InterruptedException {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        drain(this::backfillChunk);
+        long moved = drain(() -> archiveChunk(now.minusDays(archiveAfterDays)));
+        long deleted = retentionDays > 0 ? drain(() -> purgeChunk(now.minusDays(retentionDays))) : 0;
+        lastRunMillis.set((System.nanoTime() - start) / 1_000_000);
+        if (moved > 0 || deleted > 0) {
+            log.info("Archived {} and purged {} completed tasks in {} ms", moved, deleted, lastRunMillis.get());
+        }
+    }
+
+    /**
+     * Dates one chunk of completed tasks that have no completion time yet.
+     */
+    int backfillChunk() {
+        Integer dated = transactionTemplate.execute(status -> {
+            List<Long> ids = taskRepository.findUndatedCompletedIds(Limit.of(chunkSize));
+            return ids.isEmpty() ? 0 : taskRepository.backfillCompletedAt(ids);
+        });
+        return dated == null ? 0 : dated;
+    }
+
+    /**
+     * Moves one chunk of tasks completed before {@code cutoff} to the archive.
+     */
+    int archiveChunk(LocalDateTime cutoff) {
+        Integer moved = transactionTemplate.execute(status -> {
+            List<Long> ids = taskRepository.findArchivableIds(cutoff, Limit.of(chunkSize));
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            Map<Long, Long> versions = bumpVersions(countByUser(taskRepository.findUserIds(ids)));
+            archivedTaskRepository.copyFromTasks(ids);
+            taskRepository.deleteAllByIdInBatch(ids);
+            versions.forEach((userId, version) -> eventPublisher.publishEvent(new TaskChangedEvent(userId, version)));
+            return ids.size();
+        });
+        int count = moved == null ? 0 : moved;
+        archived.add(count);
+        return count;
+    }
+
+    /**
+     * Deletes one chunk of archived tasks completed before {@code cutoff}.
+     */
+    int purgeChunk(LocalDateTime cutoff) {
+        Integer deleted = transactionTemplate.execute(status -> {
+            List<Long> ids = archivedTaskRepository.findPurgeableIds(cutoff, Limit.of(chunkSize));
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            Map<Long, Integer> perUser = countByUser(archivedTaskRepository.findUserIds(ids));
+            Map<Long, Long> versions = bumpVersions(perUser);
+            perUser.forEach(taskStatsService::recordPurged);
+            archivedTaskRepository.deleteAllByIdInBatch(ids);
+            versions.forEach((userId, version) -> eventPublisher.publishEvent(new TaskChangedEvent(userId, version)));
+            return ids.size();
+        });
+        int count = deleted == null ? 0 : deleted;
+        purged.add(count);
+        return count;
+    }
+
+    public long getArchivedCount() {
+        return archived.sum();
+    }
+
+    public long getPurgedCount() {
+        return purged.sum();
+    }
+
+    public long getLastRunMillis() {
+        return lastRunMillis.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private long drain(IntSupplier chunk) throws InterruptedException {
+        long total = 0;
+        int count;
+        do {
+            count = chunk.getAsInt();
+            total += count;
+            if (count == chunkSize && chunkPauseMillis > 0) {
+                Thread.sleep(chunkPauseMillis);
+            }
+        } while (count == chunkSize);
+        return total;
+    }
+
+    private static Map<Long, Integer> countByUser(List<Long> userIds) {
+        Map<Long, Integer> counts = new TreeMap<>();
+        userIds.forEach(userId -> counts.merge(userId, 1, Integer::sum));
+        return counts;
+    }
+
+    // Ascending user order, like CompletionWriteBehindQueue's flush, so two multi-user
+    // transactions never wait on each other's user rows in opposite order.
+    private Map<Long, Long> bumpVersions(Map<Long, Integer> perUser) {
+        Map<Long, Long> versions = new TreeMap<>();
+        perUser.keySet().forEach(userId -> versions.put(userId, taskVersionStore.increment(userId)));
+        return versions;
+    }
+
+    private void runQuietly() {
+        try {
+            run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Archiving completed tasks failed; will retry", e);
+        }
+    }
+}
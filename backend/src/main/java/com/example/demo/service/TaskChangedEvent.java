@@ -0,0 +1,18 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ResponseTaskDTO;
+
+import java.util.List;
+
+/**
+ * Published inside the transaction that changes a user's tasks, carrying the task version that
+ * transaction wrote. Listeners that cache task state should act on it after commit.
+ * {@code created} and {@code completed} describe the change when it is known exactly; both are
+ * empty when it is not, and listeners should then treat the whole list as changed.
+ */
+public record TaskChangedEvent(Long userId, long version, List<ResponseTaskDTO> created, List<Long> completed) {
+
+    public TaskChangedEvent(Long userId, long version) {
+        this(userId, version, List.of(), List.of());
+    }
+}
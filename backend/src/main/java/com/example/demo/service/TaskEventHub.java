@@ -0,0 +1,248 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ResponseTaskDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fans committed task changes out to the user's open {@code /api/tasks/stream} connections.
+ * Connections are servlet async requests, so an idle one holds no thread; a virtual thread is
+ * started only while a connection has messages to write. Each connection buffers at most
+ * {@code tasks.stream.buffer-size} messages. A consumer that falls further behind loses its
+ * buffer and gets a single {@value #SYNC} message instead, telling it to refetch.
+ */
+@Component
+public class TaskEventHub {
+
+    public static final String TASK_CREATED = "task-created";
+    public static final String TASK_COMPLETED = "task-completed";
+    public static final String SYNC = "sync";
+
+    private static final Logger log = LoggerFactory.getLogger(TaskEventHub.class);
+
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final ExecutorService sender = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("task-stream-", 0).factory());
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("task-stream-heartbeat").daemon().factory());
+
+    private final TaskVersionStore taskVersionStore;
+    private final int bufferSize;
+    private final long timeoutMillis;
+
+    private final LongAdder connections = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+
+    public TaskEventHub(TaskVersionStore taskVersionStore,
+                        @Value("${tasks.stream.buffer-size}") int bufferSize,
+                        @Value("${tasks.stream.timeout}") long timeoutMillis,
+                        @Value("${tasks.stream.heartbeat}") long heartbeatMillis) {
+        this.taskVersionStore = taskVersionStore;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream for the user. A {@value #SYNC} message goes out first unless the client
+     * reconnected with the current version as its last event id. The version is read only once
+     * the connection is registered, so a change committed meanwhile is either delivered or
+     * covered by that sync.
+     */
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(userId, emitter);
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> remove(subscription));
+
+        subscriptions.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+        connections.increment();
+        long currentVersion = taskVersionStore.currentVersion(userId);
+        if (!String.valueOf(currentVersion).equals(lastEventId)) {
+            subscription.offer(sync(currentVersion));
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        Set<Subscription> userSubscriptions = subscriptions.get(event.userId());
+        if (userSubscriptions == null) {
+            return;
+        }
+        List<Message> messages = new ArrayList<>();
+        for (ResponseTaskDTO task : event.created()) {
+            messages.add(new Message(TASK_CREATED, event.version(), task));
+        }
+        for (Long id : event.completed()) {
+            messages.add(new Message(TASK_COMPLETED, event.version(), Map.of("id", id)));
+        }
+        if (messages.isEmpty()) {
+            messages.add(sync(event.version()));
+        }
+        for (Subscription subscription : userSubscriptions) {
+            messages.forEach(subscription::offer);
+        }
+    }
+
+    public int getConnectionCount() {
+        return connections.intValue();
+    }
+
+    public long getOverflowCount() {
+        return overflows.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(s -> s.emitter.complete()));
+        sender.shutdown();
+    }
+
+    private void sendHeartbeats() {
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(s -> s.offer(Message.HEARTBEAT)));
+    }
+
+    private void remove(Subscription subscription) {
+        if (!subscription.close()) {
+            return;
+        }
+        connections.decrement();
+        subscriptions.computeIfPresent(subscription.userId, (id, userSubscriptions) -> {
+            userSubscriptions.remove(subscription);
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+    }
+
+    private static Message sync(long version) {
+        return new Message(SYNC, version, Map.of("version", version));
+    }
+
+    private record Message(String name, long version, Object data) {
+
+        static final Message HEARTBEAT = new Message(null, 0, null);
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (this == HEARTBEAT) {
+                return SseEmitter.event().comment("");
+            }
+            return SseEmitter.event().name(name).id(String.valueOf(version)).data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private final class Subscription {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayDeque<Message> buffer = new ArrayDeque<>();
+        private long overflowVersion = -1;
+        private boolean draining;
+        private boolean closed;
+
+        Subscription(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(Message message) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                if (message == Message.HEARTBEAT) {
+                    if (!buffer.isEmpty() || overflowVersion >= 0) {
+                        // Pending output keeps the connection alive already.
+                        return;
+                    }
+                    buffer.add(message);
+                } else if (overflowVersion >= 0) {
+                    overflowVersion = Math.max(overflowVersion, message.version());
+                } else if (buffer.size() >= bufferSize) {
+                    buffer.clear();
+                    overflowVersion = message.version();
+                    overflows.increment();
+                } else {
+                    buffer.add(message);
+                }
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            } finally {
+                lock.unlock();
+            }
+            sender.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                Message next;
+                lock.lock();
+                try {
+                    if (closed) {
+                        draining = false;
+                        return;
+                    }
+                    if (overflowVersion >= 0) {
+                        next = sync(overflowVersion);
+                        overflowVersion = -1;
+                    } else {
+                        next = buffer.poll();
+                    }
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    emitter.send(next.toEvent());
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Closing task stream for user {}: {}", userId, e.getMessage());
+                    remove(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+
+        boolean close() {
+            lock.lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                closed = true;
+                buffer.clear();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
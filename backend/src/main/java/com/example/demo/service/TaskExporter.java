@@ -0,0 +1,255 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.repository.ArchivedTaskRepository;
+import com.example.demo.repository.TaskRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's whole task history, open, completed and archived, as NDJSON or CSV. Rows come
+ * from forward-only cursors fetched {@code 500} at a time and are projected straight into
+ * {@link ResponseTaskDTO}s, so each row is garbage as soon as it has been written and heap use
+ * does not grow with the size of the account.
+ * <p>
+ * An export keeps one connection for as long as the client takes to read it, so at most
+ * {@code tasks.export.max-concurrent} run at once.
+ */
+@Service
+public class TaskExporter {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final CompletionWriteBehindQueue completionQueue;
+    private final ObjectWriter jsonWriter;
+    private final TransactionTemplate snapshotTransaction;
+    private final int maxConcurrent;
+    private final Semaphore permits;
+    private final LongAdder exports = new LongAdder();
+    private final LongAdder exported = new LongAdder();
+
+    public TaskExporter(TaskRepository taskRepository,
+                        ArchivedTaskRepository archivedTaskRepository,
+                        CompletionWriteBehindQueue completionQueue,
+                        ObjectMapper objectMapper,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${tasks.export.max-concurrent}") int maxConcurrent) {
+        this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.completionQueue = completionQueue;
+        this.jsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        // Both cursors read one snapshot, so a task archived mid-export shows up exactly once.
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Reserves an export slot and returns the body that writes the export, or null when
+     * {@code tasks.export.max-concurrent} exports are already running. The slot is released
+     * once the body has run, or when the export is closed before the body started, after which
+     * the body writes nothing. Callers close it when the request completes, so a body that never
+     * runs, because the request timed out or failed first, does not keep the slot.
+     */
+    public Export open(Long userId, Format format) {
+        if (!permits.tryAcquire()) {
+            return null;
+        }
+        return new Export(userId, format);
+    }
+
+    /**
+     * Writes every task of the user to {@code out}, live tasks by id and then archived tasks by
+     * id. Completions still in the write-behind queue are shown as completed. Does not close
+     * {@code out}.
+     */
+    public void export(Long userId, Format format, OutputStream out) throws IOException {
+        Set<Long> completing = completionQueue.pendingFor(userId);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        RowWriter rows = format == Format.NDJSON ? ndjson(writer) : csv(writer);
+        try {
+            snapshotTransaction.executeWithoutResult(status -> {
+                try (Stream<ResponseTaskDTO> tasks = taskRepository.streamByUser(userId)) {
+                    tasks.forEach(task -> {
+                        if (completing.contains(task.getId())) {
+                            task.setCompleted(true);
+                        }
+                        write(rows, task);
+                    });
+                }
+                try (Stream<ResponseTaskDTO> archived = archivedTaskRepository.streamByUser(userId)) {
+                    archived.forEach(task -> write(rows, task));
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        rows.finish();
+        writer.flush();
+        exports.increment();
+    }
+
+    public long getExportCount() {
+        return exports.sum();
+    }
+
+    public long getExportedTaskCount() {
+        return exported.sum();
+    }
+
+    public int getActiveCount() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public final class Export implements StreamingResponseBody, AutoCloseable {
+
+        private static final int OPEN = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
+
+        private final Long userId;
+        private final Format format;
+        private final AtomicInteger state = new AtomicInteger(OPEN);
+
+        private Export(Long userId, Format format) {
+            this.userId = userId;
+            this.format = format;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            if (!state.compareAndSet(OPEN, RUNNING)) {
+                return;
+            }
+            try {
+                export(userId, format, out);
+            } finally {
+                state.set(DONE);
+                permits.release();
+            }
+        }
+
+        // A running body releases the slot itself when it ends.
+        @Override
+        public void close() {
+            if (state.compareAndSet(OPEN, DONE)) {
+                permits.release();
+            }
+        }
+    }
+
+    private void write(RowWriter rows, ResponseTaskDTO task) {
+        try {
+            rows.write(task);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        exported.increment();
+    }
+
+    private interface RowWriter {
+        void write(ResponseTaskDTO task) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private RowWriter ndjson(Writer writer) throws IOException {
+        JsonGenerator json = jsonWriter.createGenerator(writer).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return new RowWriter() {
+            @Override
+            public void write(ResponseTaskDTO task) throws IOException {
+                jsonWriter.writeValue(json, task);
+                json.writeRaw('\n');
+            }
+
+            @Override
+            public void finish() throws IOException {
+                json.flush();
+            }
+        };
+    }
+
+    private static RowWriter csv(Writer writer) throws IOException {
+        writer.write("id,title,description,completed,createdAt\r\n");
+        return new RowWriter() {
+            @Override
+            public void write(ResponseTaskDTO task) throws IOException {
+                writer.write(String.valueOf(task.getId()));
+                writer.write(',');
+                writeCsvField(writer, task.getTitle());
+                writer.write(',');
+                writeCsvField(writer, task.getDescription());
+                writer.write(',');
+                writer.write(String.valueOf(task.isCompleted()));
+                writer.write(',');
+                writer.write(task.getCreatedAt() == null ? "" : task.getCreatedAt().toString());
+                writer.write("\r\n");
+            }
+
+            @Override
+            public void finish() {
+            }
+        };
+    }
+
+    // RFC 4180: fields holding a separator, quote or line break are quoted, with quotes doubled.
+    static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.chars().noneMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r')) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ImportResultDTO;
+import com.example.demo.dto.ImportResultDTO.ImportErrorDTO;
+import com.example.demo.dto.ImportTaskDTO;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Imports tasks from an NDJSON stream, one task object per line, while it is still being
+ * uploaded. Lines are parsed one at a time and committed in chunks of
+ * {@code tasks.import.chunk-size} through {@link TaskService#importTasks}, so memory use depends
+ * on the chunk size rather than the size of the upload. Invalid lines are skipped and reported;
+ * malformed JSON stops the import, keeping the chunks committed before it.
+ */
+@Service
+public class TaskImporter {
+
+    // Column length of task.title and task.description.
+    static final int MAX_TEXT_LENGTH = 255;
+
+    private final TaskService taskService;
+    private final ObjectReader reader;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final LongAdder imported = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public TaskImporter(TaskService taskService,
+                        ObjectMapper objectMapper,
+                        @Value("${tasks.import.chunk-size}") int chunkSize,
+                        @Value("${tasks.import.max-errors}") int maxErrors) {
+        this.taskService = taskService;
+        this.reader = objectMapper.readerFor(ImportTaskDTO.class);
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public ImportResultDTO importTasks(Long userId, InputStream in) throws IOException {
+        ImportResultDTO result = new ImportResultDTO();
+        List<ImportTaskDTO> chunk = new ArrayList<>(chunkSize);
+        try (MappingIterator<ImportTaskDTO> lines = reader.readValues(in)) {
+            while (true) {
+                ImportTaskDTO task;
+                try {
+                    if (!lines.hasNextValue()) {
+                        break;
+                    }
+                    task = lines.nextValue();
+                } catch (JsonMappingException e) {
+                    // The iterator skips the rest of the bad value on the next hasNextValue.
+                    reject(result, e.getLocation(), e.getOriginalMessage());
+                    continue;
+                } catch (JsonProcessingException e) {
+                    result.setAborted(true);
+                    result.getErrors().add(new ImportErrorDTO(lineOf(e.getLocation()),
+                            "Malformed JSON, import stopped: " + e.getOriginalMessage()));
+                    break;
+                }
+                String problem = validate(task);
+                if (problem != null) {
+                    reject(result, lines.getParser().currentTokenLocation(), problem);
+                    continue;
+                }
+                chunk.add(task);
+                if (chunk.size() == chunkSize) {
+                    commit(userId, chunk, result);
+                }
+            }
+        }
+        commit(userId, chunk, result);
+        return result;
+    }
+
+    public long getImportedCount() {
+        return imported.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private void commit(Long userId, List<ImportTaskDTO> chunk, ImportResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        int count = taskService.importTasks(userId, chunk);
+        chunk.clear();
+        result.setImported(result.getImported() + count);
+        result.setChunks(result.getChunks() + 1);
+        imported.add(count);
+    }
+
+    private void reject(ImportResultDTO result, JsonLocation location, String message) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new ImportErrorDTO(lineOf(location), message));
+        }
+        rejected.increment();
+    }
+
+    private static String validate(ImportTaskDTO task) {
+        if (task == null || task.getTitle() == null || task.getTitle().isBlank()) {
+            return "title is required";
+        }
+        if (task.getTitle().length() > MAX_TEXT_LENGTH) {
+            return "title is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (task.getDescription() != null && task.getDescription().length() > MAX_TEXT_LENGTH) {
+            return "description is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private static long lineOf(JsonLocation location) {
+        return location == null ? 0 : location.getLineNr();
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.demo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Converts the {@code task} table to PostgreSQL hash partitioning on {@code user_id}
+ * ({@code tasks.partitioning.enabled}), so every per-user query is pruned to one of
+ * {@code tasks.partitioning.partitions} partitions. Hibernate still creates a plain table on an
+ * empty database; this runs after startup and converts it, which for a new table is instant.
+ * <p>
+ * The move is online: a partitioned copy is created with the same columns and indexes and a
+ * trigger mirrors every write on {@code task} into it. Existing rows are then copied in batches
+ * of {@code tasks.partitioning.batch-size} by id, each its own statement, skipping rows the
+ * trigger already wrote and holding share locks on the batch so no row can be deleted under it. Finally both tables swap names under a short exclusive lock. The old
+ * table is kept as {@code task_unpartitioned} to be dropped by hand. An interrupted migration
+ * resumes from the start of the copy on the next startup.
+ */
+@Component
+public class TaskPartitionMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskPartitionMigrator.class);
+
+    static final String TABLE = "task";
+    static final String STAGING = "task_partitioned";
+    static final String RETIRED = "task_unpartitioned";
+    static final String SYNC = "task_partition_sync";
+    private static final int SWAP_ATTEMPTS = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int partitions;
+    private final int batchSize;
+    private final long batchPauseMillis;
+
+    public TaskPartitionMigrator(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${tasks.partitioning.enabled}") boolean enabled,
+                                 @Value("${tasks.partitioning.partitions}") int partitions,
+                                 @Value("${tasks.partitioning.batch-size}") int batchSize,
+                                 @Value("${tasks.partitioning.batch-pause}") long batchPauseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.partitions = partitions;
+        this.batchSize = batchSize;
+        this.batchPauseMillis = batchPauseMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            Thread.ofPlatform().name("task-partition-migrator").daemon().start(this::migrateQuietly);
+        }
+    }
+
+    /**
+     * Runs the whole migration if {@code task} is not partitioned yet. Returns whether the tables
+     * were swapped.
+     */
+    public boolean migrate() throws InterruptedException {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            log.warn("Task partitioning needs PostgreSQL, not {}; leaving {} as it is", database, TABLE);
+            return false;
+        }
+        if (isPartitioned()) {
+            return false;
+        }
+
+        List<String> columns = columns(TABLE);
+        String primaryKey = jdbcTemplate.queryForObject(
+                "select conname from pg_constraint where conrelid = ?::regclass and contype = 'p'",
+                String.class, TABLE);
+        List<String> indexes = jdbcTemplate.queryForList(
+                "select indexname from pg_indexes where schemaname = current_schema() and tablename = ?"
+                        + " and indexname not in (select conname from pg_constraint where conrelid = ?::regclass)",
+                String.class, TABLE, TABLE);
+
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (exists(STAGING) && !columns(STAGING).equals(columns)) {
+                // The entity gained a column since the copy started.
+                jdbcTemplate.execute("drop table " + STAGING + " cascade");
+            }
+            if (!exists(STAGING)) {
+                createStaging(indexes);
+            }
+            installSync(columns);
+        });
+        long copied = copyExisting(columns);
+        swap(primaryKey, indexes);
+        log.info("Partitioned {} into {} partitions by user_id in {} s ({} rows copied); drop {} when satisfied",
+                TABLE, partitions, (System.nanoTime() - start) / 1_000_000_000, copied, RETIRED);
+        return true;
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "select count(*) from pg_partitioned_table where partrelid = ?::regclass", Integer.class, TABLE);
+        return count != null && count > 0;
+    }
+
+    private List<String> columns(String table) {
+        return jdbcTemplate.queryForList(
+                "select column_name from information_schema.columns"
+                        + " where table_schema = current_schema() and table_name = ? order by ordinal_position",
+                String.class, table);
+    }
+
+    private boolean exists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select to_regclass(?) is not null", Boolean.class, table));
+    }
+
+    // Same columns, defaults and NOT NULLs; the primary key has to include the partition key.
+    private void createStaging(List<String> indexes) {
+        jdbcTemplate.execute("create table " + STAGING + " (like " + TABLE + " including defaults)"
+                + " partition by hash (user_id)");
+        for (int remainder = 0; remainder < partitions; remainder++) {
+            jdbcTemplate.execute("create table " + TABLE + "_p" + remainder + " partition of " + STAGING
+                    + " for values with (modulus " + partitions + ", remainder " + remainder + ")");
+        }
+        jdbcTemplate.execute("alter table " + STAGING + " add primary key (id, user_id)");
+        jdbcTemplate.execute("alter table " + STAGING + " add foreign key (user_id) references app_user (id)");
+        for (String index : indexes) {
+            String definition = jdbcTemplate.queryForObject(
+                    "select indexdef from pg_indexes where schemaname = current_schema() and indexname = ?",
+                    String.class, index);
+            jdbcTemplate.execute(definition.replaceFirst(" INDEX " + index + " ON \\S+ ",
+                    " INDEX " + index + "_part ON " + STAGING + " "));
+        }
+    }
+
+    // Mirrors every change to task, in the writer's transaction, into the staging table, so rows copied earlier
+    // never go stale. Rows the trigger wrote win over the batch copy. Columns are listed, so a
+    // column added to task later is not mirrored but does not break writes either.
+    private void installSync(List<String> columns) {
+        List<String> updated = columns.stream().filter(column -> !column.equals("id") && !column.equals("user_id"))
+                .toList();
+        String targets = String.join(", ", updated);
+        String values = updated.stream().map(column -> "excluded." + column).collect(Collectors.joining(", "));
+        String newValues = columns.stream().map(column -> "new." + column).collect(Collectors.joining(", "));
+        jdbcTemplate.execute("create or replace function " + SYNC + "() returns trigger language plpgsql as $$\n"
+                + "begin\n"
+                + "  if tg_op = 'DELETE' then\n"
+                + "    delete from " + STAGING + " where id = old.id and user_id = old.user_id;\n"
+                + "    return old;\n"
+                + "  end if;\n"
+                + "  insert into " + STAGING + " (" + String.join(", ", columns) + ") values (" + newValues + ")\n"
+                + "    on conflict (id, user_id) do update set (" + targets + ") = row(" + values + ");\n"
+                + "  return new;\n"
+                + "end\n"
+                + "$$");
+        jdbcTemplate.execute("drop trigger if exists " + SYNC + " on " + TABLE);
+        jdbcTemplate.execute("create trigger " + SYNC + " after insert or update or delete on " + TABLE
+                + " for each row execute function " + SYNC + "()");
+    }
+
+    // A batch reads task as of when its statement started. Without FOR SHARE, a row deleted after
+    // that would already be gone from the staging table when the batch copies it back in; with it,
+    // the batch waits for an in-progress delete and skips the row, and later deletes wait for the
+    // batch, then remove the copy through the trigger.
+    private long copyExisting(List<String> columns) throws InterruptedException {
+        String columnList = String.join(", ", columns);
+        long copied = 0;
+        long after = Long.MIN_VALUE;
+        while (true) {
+            Long upTo = jdbcTemplate.queryForObject(
+                    "select max(id) from (select id from " + TABLE + " where id > ? order by id limit ?) batch",
+                    Long.class, after, batchSize);
+            if (upTo == null) {
+                return copied;
+            }
+            copied += jdbcTemplate.update("insert into " + STAGING + " (" + columnList + ") select " + columnList
+                    + " from " + TABLE + " where id > ? and id <= ? order by id for share"
+                    + " on conflict (id, user_id) do nothing", after, upTo);
+            after = upTo;
+            if (batchPauseMillis > 0) {
+                Thread.sleep(batchPauseMillis);
+            }
+        }
+    }
+
+    // Writers queue behind the exclusive lock only for as long as the renames take; if it cannot
+    // be had quickly the attempt gives up and is retried, rather than stalling every request.
+    private void swap(String primaryKey, List<String> indexes) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("set local lock_timeout = '2s'");
+                    jdbcTemplate.execute("lock table " + TABLE + " in access exclusive mode");
+                    jdbcTemplate.execute("drop trigger " + SYNC + " on " + TABLE);
+                    jdbcTemplate.execute("drop function " + SYNC + "()");
+                    jdbcTemplate.execute("alter table " + TABLE + " rename to " + RETIRED);
+                    jdbcTemplate.execute("alter table " + RETIRED + " rename constraint "
+                            + primaryKey + " to " + RETIRED + "_pkey");
+                    for (String index : indexes) {
+                        jdbcTemplate.execute("alter index " + index + " rename to " + index + "_unpartitioned");
+                        jdbcTemplate.execute("alter index " + index + "_part rename to " + index);
+                    }
+                    jdbcTemplate.execute("alter table " + STAGING + " rename to " + TABLE);
+                    jdbcTemplate.execute("alter table " + TABLE + " rename constraint "
+                            + STAGING + "_pkey to " + primaryKey);
+                });
+                return;
+            } catch (DataAccessException e) {
+                if (attempt == SWAP_ATTEMPTS) {
+                    throw e;
+                }
+                log.info("Could not lock {} to swap in the partitioned table (attempt {}); retrying", TABLE, attempt);
+                Thread.sleep(1000L * attempt);
+            }
+        }
+    }
+
+    private void migrateQuietly() {
+        try {
+            migrate();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Partitioning {} failed; it will resume on the next startup", TABLE, e);
+        }
+    }
+}
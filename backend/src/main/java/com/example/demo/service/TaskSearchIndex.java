@@ -0,0 +1,480 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.repository.TaskText;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over task titles and descriptions, one per user. Words are
+ * lower-cased runs of letters and digits; every query word must match a word of the task as a
+ * prefix, and tasks rank by how strongly they match (title over description, whole word over
+ * prefix). Created tasks and completions arrive through {@link TaskChangedEvent}.
+ * <p>
+ * Indexes are built by a streaming scan at startup and otherwise on a user's first search.
+ * Their estimated size is capped at {@code tasks.search.max-bytes}; beyond that the least
+ * recently used users are dropped and reloaded when they next search.
+ */
+@Component
+public class TaskSearchIndex {
+
+    static final int MIN_TOKEN_LENGTH = 2;
+    static final int MAX_TOKEN_LENGTH = 32;
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    // Rough heap cost of the structures below, used for the memory cap and for reporting.
+    private static final long POSTING_BYTES = 14;
+    private static final long TERM_BYTES = 120;
+    private static final long DOCUMENT_BYTES = 100;
+
+    private static final Logger log = LoggerFactory.getLogger(TaskSearchIndex.class);
+
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long maxBytes;
+    private final boolean rebuildOnStartup;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Long, UserIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    // Users changed during the startup scan before it reached them; the scan must not install them.
+    private Set<Long> changedDuringRebuild;
+    private volatile boolean stopping;
+
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    public TaskSearchIndex(TaskRepository taskRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${tasks.search.max-bytes}") long maxBytes,
+                           @Value("${tasks.search.rebuild-on-startup}") boolean rebuildOnStartup) {
+        this.taskRepository = taskRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxBytes = maxBytes;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    /**
+     * Ids of the user's best matching tasks, best first. {@code completed} filters by state
+     * (null for both); ids in {@code completing} count as completed.
+     */
+    public List<Long> search(Long userId, String query, Boolean completed, Set<Long> completing, int limit) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        return acquire(userId).search(words, completed, completing, limit);
+    }
+
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        UserIndex index;
+        lock.lock();
+        try {
+            index = indexes.get(event.userId());
+            if (index == null) {
+                if (changedDuringRebuild != null) {
+                    changedDuringRebuild.add(event.userId());
+                }
+                return;
+            }
+            if (event.created().isEmpty() && event.completed().isEmpty()) {
+                // Which tasks changed is unknown; reload on the next search.
+                remove(event.userId());
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        long added = 0;
+        for (ResponseTaskDTO task : event.created()) {
+            added += index.add(task.getId(), task.getTitle(), task.getDescription(), task.isCompleted());
+        }
+        event.completed().forEach(index::markCompleted);
+        grew(event.userId(), index, added);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (rebuildOnStartup) {
+            Thread.ofPlatform().name("task-search-rebuild").daemon().start(this::rebuild);
+        }
+    }
+
+    /**
+     * Streams every task, grouped by user, into fresh indexes until the memory cap is reached.
+     * Users not reached are loaded on their first search instead.
+     */
+    public void rebuild() {
+        lock.lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.unlock();
+        }
+        long start = System.nanoTime();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<TaskText> rows = taskRepository.streamAllText()) {
+                    Iterator<TaskText> iterator = rows.iterator();
+                    Long userId = null;
+                    UserIndex building = null;
+                    while (iterator.hasNext() && !stopping) {
+                        TaskText row = iterator.next();
+                        if (!row.userId().equals(userId)) {
+                            if (building != null && !install(userId, building)) {
+                                return;
+                            }
+                            userId = row.userId();
+                            building = new UserIndex();
+                        }
+                        building.add(row.id(), row.title(), row.description(), row.completed());
+                    }
+                    if (building != null && !stopping) {
+                        install(userId, building);
+                    }
+                }
+            });
+            log.info("Search index built for {} users in {} ms, ~{} KB", getIndexedUserCount(),
+                    (System.nanoTime() - start) / 1_000_000, getEstimatedBytes() / 1024);
+        } catch (RuntimeException e) {
+            log.warn("Rebuilding the search index failed; users will be indexed on first search", e);
+        } finally {
+            lock.lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public long getEstimatedBytes() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public int getIndexedUserCount() {
+        lock.lock();
+        try {
+            return indexes.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (token.length() < MAX_TOKEN_LENGTH) {
+                    token.append(Character.toLowerCase(c));
+                }
+            } else if (!token.isEmpty()) {
+                if (token.length() >= MIN_TOKEN_LENGTH) {
+                    tokens.add(token.toString());
+                }
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    private UserIndex acquire(Long userId) {
+        UserIndex index;
+        boolean load = false;
+        lock.lock();
+        try {
+            index = indexes.get(userId);
+            if (index == null) {
+                // Registered before loading, so changes committed meanwhile are applied to it too.
+                index = new UserIndex();
+                indexes.put(userId, index);
+                load = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (load) {
+            load(userId, index);
+        }
+        index.awaitLoaded();
+        return index;
+    }
+
+    private void load(Long userId, UserIndex index) {
+        try {
+            long[] added = {0};
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<TaskText> rows = taskRepository.streamTextByUser(userId)) {
+                    rows.forEach(row -> added[0] += index.add(row.id(), row.title(), row.description(), row.completed()));
+                }
+            });
+            loads.increment();
+            index.loaded(true);
+            grew(userId, index, added[0]);
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                if (indexes.get(userId) == index) {
+                    remove(userId);
+                }
+            } finally {
+                lock.unlock();
+            }
+            index.loaded(false);
+            throw e;
+        }
+    }
+
+    private boolean install(Long userId, UserIndex index) {
+        lock.lock();
+        try {
+            if (totalBytes + index.bytes() > maxBytes) {
+                return false;
+            }
+            if (!indexes.containsKey(userId) && !changedDuringRebuild.contains(userId)) {
+                indexes.put(userId, index);
+                index.accounted = index.bytes();
+                totalBytes += index.accounted;
+                index.loaded(true);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void grew(Long userId, UserIndex index, long bytes) {
+        if (bytes == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (indexes.get(userId) != index) {
+                return;
+            }
+            index.accounted += bytes;
+            totalBytes += bytes;
+            Iterator<Map.Entry<Long, UserIndex>> eldest = indexes.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<Long, UserIndex> entry = eldest.next();
+                if (entry.getValue() == index) {
+                    continue;
+                }
+                totalBytes -= entry.getValue().accounted;
+                eldest.remove();
+                evictions.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(Long userId) {
+        UserIndex removed = indexes.remove(userId);
+        if (removed != null) {
+            totalBytes -= removed.accounted;
+        }
+    }
+
+    private record Match(long id, int score) {
+
+        static final Comparator<Match> BEST_FIRST = Comparator.comparingInt(Match::score)
+                .thenComparingLong(Match::id)
+                .reversed();
+    }
+
+    private static final class Postings {
+
+        private long[] ids = new long[2];
+        private byte[] weights = new byte[2];
+        private int size;
+
+        void add(long id, int weight) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ids[size] = id;
+            weights[size] = (byte) Math.min(weight, Byte.MAX_VALUE);
+            size++;
+        }
+    }
+
+    private static final class UserIndex {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final TreeMap<String, Postings> terms = new TreeMap<>();
+        private final Set<Long> documents = new HashSet<>();
+        private final Set<Long> completed = new HashSet<>();
+        private final CountDownLatch loadedLatch = new CountDownLatch(1);
+        private volatile boolean loaded;
+        private long bytes;
+        // Bytes counted towards the global total; guarded by the outer lock.
+        private long accounted;
+
+        long add(Long id, String title, String description, boolean isCompleted) {
+            Map<String, Integer> weights = new HashMap<>();
+            tokenize(title).forEach(term -> weights.merge(term, TITLE_WEIGHT, Integer::sum));
+            tokenize(description).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+            lock.writeLock().lock();
+            try {
+                if (isCompleted) {
+                    completed.add(id);
+                }
+                if (!documents.add(id)) {
+                    return 0;
+                }
+                long added = DOCUMENT_BYTES;
+                for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+                    Postings postings = terms.get(weight.getKey());
+                    if (postings == null) {
+                        postings = new Postings();
+                        terms.put(weight.getKey(), postings);
+                        added += TERM_BYTES + 2L * weight.getKey().length();
+                    }
+                    postings.add(id, weight.getValue());
+                    added += POSTING_BYTES;
+                }
+                bytes += added;
+                return added;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // Tasks are never reopened, so a completion read or received in any order is final. It is
+        // kept even before the task's document is loaded, which then picks it up.
+        void markCompleted(Long id) {
+            lock.writeLock().lock();
+            try {
+                completed.add(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<Long> search(List<String> words, Boolean wantCompleted, Set<Long> completing, int limit) {
+            List<Match> matches = new ArrayList<>();
+            lock.readLock().lock();
+            try {
+                Map<Long, Integer> scores = null;
+                for (String word : words) {
+                    Map<Long, Integer> wordScores = new HashMap<>();
+                    for (Map.Entry<String, Postings> term
+                            : terms.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+                        boolean whole = term.getKey().length() == word.length();
+                        Postings postings = term.getValue();
+                        for (int i = 0; i < postings.size; i++) {
+                            int score = whole ? postings.weights[i] * 2 : postings.weights[i];
+                            wordScores.merge(postings.ids[i], score, Math::max);
+                        }
+                    }
+                    if (scores == null) {
+                        scores = wordScores;
+                    } else {
+                        scores.keySet().retainAll(wordScores.keySet());
+                        scores.replaceAll((id, score) -> score + wordScores.get(id));
+                    }
+                    if (scores.isEmpty()) {
+                        return List.of();
+                    }
+                }
+                for (Map.Entry<Long, Integer> score : scores.entrySet()) {
+                    Long id = score.getKey();
+                    boolean isCompleted = completed.contains(id) || completing.contains(id);
+                    if (wantCompleted == null || wantCompleted == isCompleted) {
+                        matches.add(new Match(id, score.getValue()));
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            matches.sort(Match.BEST_FIRST);
+            return matches.stream().limit(limit).map(Match::id).toList();
+        }
+
+        long bytes() {
+            lock.readLock().lock();
+            try {
+                return bytes;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void loaded(boolean success) {
+            loaded = success;
+            loadedLatch.countDown();
+        }
+
+        void awaitLoaded() {
+            try {
+                loadedLatch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading the search index", e);
+            }
+            if (!loaded) {
+                throw new IllegalStateException("Search index could not be loaded");
+            }
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BatchRequestDTO;
+import com.example.demo.dto.BatchResponseDTO;
+import com.example.demo.dto.BatchResponseDTO.CompleteResultDTO;
+import com.example.demo.dto.CreateTaskDTO;
+import com.example.demo.dto.ImportTaskDTO;
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.dto.TaskCursor;
+import com.example.demo.model.Task;
+import com.example.demo.model.User;
+import com.example.demo.repository.ArchivedTaskRepository;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+@Service
+public class TaskService {
+
+    private static final Comparator<ResponseTaskDTO> NEWEST_FIRST = Comparator
+            .comparing(ResponseTaskDTO::getCreatedAt)
+            .thenComparing(ResponseTaskDTO::getId)
+            .reversed();
+
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final UserRepository userRepository;
+    private final TaskVersionStore taskVersionStore;
+    private final OpenTaskListCache openTaskListCache;
+    private final CompletionWriteBehindQueue completionQueue;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TaskStatsService taskStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public TaskService(TaskRepository taskRepository, ArchivedTaskRepository archivedTaskRepository,
+                       UserRepository userRepository,
+                       TaskVersionStore taskVersionStore, OpenTaskListCache openTaskListCache,
+                       CompletionWriteBehindQueue completionQueue, TaskSearchIndex taskSearchIndex,
+                       TaskStatsService taskStatsService, ApplicationEventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager) {
+        this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.userRepository = userRepository;
+        this.taskVersionStore = taskVersionStore;
+        this.openTaskListCache = openTaskListCache;
+        this.completionQueue = completionQueue;
+        this.taskSearchIndex = taskSearchIndex;
+        this.taskStatsService = taskStatsService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Version of the user's task list; it changes whenever one of their tasks is created or
+     * completed, including completions still waiting in the write-behind queue.
+     */
+    public String getTaskListVersion(Long userId) {
+        long version = taskVersionStore.currentVersion(userId);
+        long pendingStamp = completionQueue.stampFor(userId);
+        return pendingStamp == 0 ? String.valueOf(version) : version + "." + pendingStamp;
+    }
+
+    /**
+     * Returns up to {@code limit} tasks after {@code after}, newest first. A null
+     * {@code completed} matches tasks in either state. The first page of open tasks is served
+     * from {@link OpenTaskListCache}. Not transactional itself, so a cache hit never borrows a
+     * connection; each query runs in its repository's read-only transaction. Completions still
+     * in the write-behind queue are applied on top of what the database returns. Tasks moved
+     * out by {@link TaskArchiver} are only returned by {@link #getArchivedTasks}.
+     */
+    public List<ResponseTaskDTO> getTasks(Long userId, Boolean completed, TaskCursor after, Limit limit) {
+        Set<Long> completing = completionQueue.pendingFor(userId);
+        if (completing.isEmpty()) {
+            return findTasks(userId, completed, after, limit);
+        }
+        if (completed == null) {
+            List<ResponseTaskDTO> tasks = findTasks(userId, null, after, limit);
+            tasks.stream().filter(task -> completing.contains(task.getId())).forEach(task -> task.setCompleted(true));
+            return tasks;
+        }
+        if (!completed) {
+            // Over-fetch by the number of queued completions so the page stays full after filtering.
+            return findTasks(userId, false, after, Limit.of(limit.max() + completing.size())).stream()
+                    .filter(task -> !completing.contains(task.getId()))
+                    .limit(limit.max())
+                    .toList();
+        }
+        List<ResponseTaskDTO> tasks = new ArrayList<>(findTasks(userId, true, after, limit));
+        Set<Long> listed = new HashSet<>();
+        tasks.forEach(task -> listed.add(task.getId()));
+        for (ResponseTaskDTO task : taskRepository.findByIds(completing, userId)) {
+            if (!listed.contains(task.getId()) && (after == null || isAfter(task, after))) {
+                task.setCompleted(true);
+                tasks.add(task);
+            }
+        }
+        tasks.sort(NEWEST_FIRST);
+        return tasks.size() > limit.max() ? tasks.subList(0, limit.max()) : tasks;
+    }
+
+    /**
+     * Returns up to {@code limit} archived tasks after {@code after}, newest first. Not cached.
+     */
+    public List<ResponseTaskDTO> getArchivedTasks(Long userId, TaskCursor after, Limit limit) {
+        return after == null
+                ? archivedTaskRepository.findPage(userId, limit)
+                : archivedTaskRepository.findPageAfter(userId, after.createdAt(), after.id(), limit);
+    }
+
+    /**
+     * Ranks the user's tasks against {@code query} with {@link TaskSearchIndex} and loads only
+     * the matches that are returned, in one query.
+     */
+    public List<ResponseTaskDTO> searchTasks(Long userId, String query, Boolean completed, int limit) {
+        Set<Long> completing = completionQueue.pendingFor(userId);
+        List<Long> ids = taskSearchIndex.search(userId, query, completed, completing, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ResponseTaskDTO> tasks = new HashMap<>();
+        for (ResponseTaskDTO task : taskRepository.findByIds(ids, userId)) {
+            if (completing.contains(task.getId())) {
+                task.setCompleted(true);
+            }
+            tasks.put(task.getId(), task);
+        }
+        return ids.stream().map(tasks::get).filter(Objects::nonNull).toList();
+    }
+
+    private List<ResponseTaskDTO> findTasks(Long userId, Boolean completed, TaskCursor after, Limit limit) {
+        if (completed == null) {
+            return after == null
+                    ? taskRepository.findPage(userId, limit)
+                    : taskRepository.findPageAfter(userId, after.createdAt(), after.id(), limit);
+        }
+        if (after == null && !completed) {
+            return openTaskListCache.get(userId, limit);
+        }
+        return after == null
+                ? taskRepository.findPageByCompleted(userId, completed, limit)
+                : taskRepository.findPageByCompletedAfter(userId, completed, after.createdAt(), after.id(), limit);
+    }
+
+    @Transactional
+    public ResponseTaskDTO createTask(Long userId, CreateTaskDTO createTaskDTO) {
+        Task savedTask = taskRepository.save(newTask(userRepository.getReferenceById(userId), createTaskDTO));
+        ResponseTaskDTO created = toResponse(savedTask);
+        tasksChanged(userId, List.of(created), List.of(), 0);
+        return created;
+    }
+
+    /**
+     * Completes the task now, or with {@code tasks.write-behind.enabled} checks ownership in its
+     * own short read and leaves the UPDATE to {@link CompletionWriteBehindQueue}. The completion
+     * is queued outside any transaction, so no connection is held while the journal is synced.
+     */
+    public boolean completeTask(Long userId, Long taskId) {
+        if (completionQueue.isEnabled()) {
+            if (taskRepository.findOwnedIds(List.of(taskId), userId).isEmpty()) {
+                return false;
+            }
+            completionQueue.enqueue(userId, taskId);
+            return true;
+        }
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (taskRepository.completeTask(taskId, userId) == 0) {
+                // Completing a task twice succeeds without changing anything.
+                return taskRepository.existsByIdAndUserId(taskId, userId);
+            }
+            tasksChanged(userId, List.of(), List.of(taskId), 1);
+            return true;
+        }));
+    }
+
+    /**
+     * Returns how many of the listed tasks were open and are now completed.
+     */
+    @Transactional
+    public int completeTasks(Long userId, Collection<Long> taskIds) {
+        int completed = taskIds.isEmpty() ? 0 : taskRepository.completeTasks(taskIds, userId);
+        if (completed == taskIds.size()) {
+            tasksChanged(userId, List.of(), List.copyOf(taskIds), completed);
+        } else if (completed > 0) {
+            // Some ids were skipped and the UPDATE does not say which.
+            tasksChanged(userId, List.of(), List.of(), completed);
+        }
+        return completed;
+    }
+
+    /**
+     * Applies all creates, then all completes, in one transaction. Inserts go out as JDBC
+     * batches using pooled sequence ids; completes cost one ownership lookup and one UPDATE
+     * regardless of how many ids are listed.
+     */
+    @Transactional
+    public BatchResponseDTO applyBatch(Long userId, BatchRequestDTO request) {
+        BatchResponseDTO response = new BatchResponseDTO();
+        boolean changed = false;
+        List<Long> completedIds = List.of();
+        int completedCount = 0;
+
+        if (!request.getCreate().isEmpty()) {
+            User user = userRepository.getReferenceById(userId);
+            List<Task> tasks = new ArrayList<>(request.getCreate().size());
+            for (CreateTaskDTO createTaskDTO : request.getCreate()) {
+                tasks.add(newTask(user, createTaskDTO));
+            }
+            for (Task savedTask : taskRepository.saveAll(tasks)) {
+                response.getCreated().add(toResponse(savedTask));
+            }
+            changed = true;
+        }
+
+        if (!request.getComplete().isEmpty()) {
+            Set<Long> requested = new LinkedHashSet<>(request.getComplete());
+            Set<Long> owned = new HashSet<>(taskRepository.findOwnedIds(requested, userId));
+            completedCount = owned.isEmpty() ? 0 : taskRepository.completeTasks(owned, userId);
+            if (completedCount > 0) {
+                changed = true;
+                // Owned tasks that were already completed are listed too; subscribers treat
+                // completing them again as a no-op.
+                completedIds = List.copyOf(owned);
+            }
+            for (Long id : request.getComplete()) {
+                response.getCompleted().add(new CompleteResultDTO(id,
+                        owned.contains(id) ? CompleteResultDTO.COMPLETED : CompleteResultDTO.NOT_FOUND));
+            }
+        }
+
+        if (changed) {
+            tasksChanged(userId, response.getCreated(), completedIds, completedCount);
+        }
+        return response;
+    }
+
+    /**
+     * Inserts one chunk of {@link TaskImporter}'s import in its own transaction, as JDBC batches
+     * like {@link #applyBatch}, and returns how many tasks were inserted. Tasks are expected to
+     * be validated already.
+     */
+    @Transactional
+    public int importTasks(Long userId, List<ImportTaskDTO> chunk) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        User user = userRepository.getReferenceById(userId);
+        List<Task> tasks = new ArrayList<>(chunk.size());
+        int completedCount = 0;
+        for (ImportTaskDTO importTaskDTO : chunk) {
+            Task task = newTask(user, importTaskDTO);
+            if (importTaskDTO.getCreatedAt() != null) {
+                task.setCreatedAt(importTaskDTO.getCreatedAt());
+            }
+            if (importTaskDTO.isCompleted()) {
+                task.setCompleted(true);
+                task.setCompletedAt(importTaskDTO.getCompletedAt() != null
+                        ? importTaskDTO.getCompletedAt() : task.getCreatedAt());
+                completedCount++;
+            }
+            tasks.add(task);
+        }
+        List<ResponseTaskDTO> created = new ArrayList<>(tasks.size());
+        for (Task savedTask : taskRepository.saveAll(tasks)) {
+            created.add(toResponse(savedTask));
+        }
+        tasksChanged(userId, created, List.of(), completedCount);
+        return created.size();
+    }
+
+    /**
+     * Bumps the task version, which takes the user row lock, then updates the stats counters
+     * under that lock and publishes the change. {@code completedCount} is the number of tasks
+     * that went from open to completed.
+     */
+    private void tasksChanged(Long userId, List<ResponseTaskDTO> created, List<Long> completed, int completedCount) {
+        long version = taskVersionStore.increment(userId);
+        taskStatsService.record(userId, created, completedCount);
+        eventPublisher.publishEvent(new TaskChangedEvent(userId, version, List.copyOf(created), completed));
+    }
+
+    private static boolean isAfter(ResponseTaskDTO task, TaskCursor after) {
+        int byCreatedAt = task.getCreatedAt().compareTo(after.createdAt());
+        return byCreatedAt < 0 || (byCreatedAt == 0 && task.getId() < after.id());
+    }
+
+    private static Task newTask(User user, CreateTaskDTO createTaskDTO) {
+        Task task = new Task();
+        task.setTitle(createTaskDTO.getTitle());
+        task.setDescription(createTaskDTO.getDescription());
+        task.setUser(user);
+        task.setCreatedAt(LocalDateTime.now());
+        return task;
+    }
+
+    static ResponseTaskDTO toResponse(Task task) {
+        return new ResponseTaskDTO(task.getId(), task.getTitle(), task.getDescription(),
+                task.isCompleted(), task.getCreatedAt());
+    }
+}
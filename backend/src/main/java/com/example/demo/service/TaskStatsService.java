@@ -0,0 +1,284 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.config.SqlStatementCounter;
+import com.example.demo.dto.DailyCountDTO;
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.dto.TaskStatsDTO;
+import com.example.demo.model.TaskDailyCount;
+import com.example.demo.model.TaskStats;
+import com.example.demo.repository.ArchivedTaskRepository;
+import com.example.demo.repository.TaskDailyCountRepository;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.repository.TaskStatsRepository;
+import com.example.demo.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user task counts for the stats endpoint, including archived tasks. {@code task_stats}
+ * and {@code task_daily_count} are updated by {@link #record} in the same transaction as every
+ * create and complete, so a read costs two primary-key lookups instead of scanning the user's
+ * tasks. A user's rows are only created on their first read; until then writes skip them.
+ * <p>
+ * Reads are served from an in-memory snapshot tagged with the task version, like
+ * {@link OpenTaskListCache}. A background job recounts every user with stats from the task
+ * table every {@code tasks.stats.reconcile-interval} ms and repairs any drift, e.g. from writes
+ * that bypass {@link TaskService}.
+ */
+@Service
+public class TaskStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskStatsService.class);
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    private final TaskStatsRepository taskStatsRepository;
+    private final TaskDailyCountRepository taskDailyCountRepository;
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final UserRepository userRepository;
+    private final TaskVersionStore taskVersionStore;
+    private final TransactionTemplate transactionTemplate;
+    private final BoundedCache<Long, Snapshot> snapshots;
+    private final int maxDays;
+
+    private final ScheduledExecutorService reconciler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("task-stats-reconcile").daemon().factory());
+    private final LongAdder reconciled = new LongAdder();
+    // Also tags snapshots, so one loaded while a repair was committing is never served after it.
+    private final LongAdder repaired = new LongAdder();
+
+    public TaskStatsService(TaskStatsRepository taskStatsRepository,
+                            TaskDailyCountRepository taskDailyCountRepository,
+                            TaskRepository taskRepository,
+                            ArchivedTaskRepository archivedTaskRepository,
+                            UserRepository userRepository,
+                            TaskVersionStore taskVersionStore,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${tasks.stats.max-days}") int maxDays,
+                            @Value("${tasks.stats.cache.max-size}") int maxSize,
+                            @Value("${tasks.stats.cache.ttl}") long ttlMillis,
+                            @Value("${tasks.stats.reconcile-interval}") long reconcileIntervalMillis) {
+        this.taskStatsRepository = taskStatsRepository;
+        this.taskDailyCountRepository = taskDailyCountRepository;
+        this.taskRepository = taskRepository;
+        this.archivedTaskRepository = archivedTaskRepository;
+        this.userRepository = userRepository;
+        this.taskVersionStore = taskVersionStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshots = new BoundedCache<>(maxSize, Duration.ofMillis(ttlMillis));
+        this.maxDays = maxDays;
+        if (reconcileIntervalMillis > 0) {
+            reconciler.scheduleWithFixedDelay(this::reconcileAllQuietly, reconcileIntervalMillis,
+                    reconcileIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Returns the user's open and completed counts and the number of tasks created on each of
+     * the last {@code days} days (at most {@code tasks.stats.max-days}), oldest first and
+     * including days with none. The version is read before the counters, so a snapshot can only
+     * be tagged with a version older than its contents.
+     */
+    public TaskStatsDTO getStats(Long userId, int days) {
+        long version = taskVersionStore.currentVersion(userId);
+        long generation = repaired.sum();
+        Snapshot snapshot = snapshots.get(userId);
+        if (snapshot == null || snapshot.version() != version || snapshot.generation() != generation) {
+            snapshot = load(userId, version, generation);
+            snapshots.put(userId, snapshot);
+        }
+        return snapshot.toStats(LocalDate.now(), Math.max(1, Math.min(days, maxDays)));
+    }
+
+    /**
+     * Applies a write to the user's counters. Must run in the writer's transaction after the
+     * task version was bumped, so the user row lock orders it against other writers and against
+     * {@link #reconcile}. {@code completed} counts only tasks that were open before.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long userId, List<ResponseTaskDTO> created, int completed) {
+        if (created.isEmpty() && completed == 0) {
+            return;
+        }
+        if (taskStatsRepository.addCounts(userId, created.size(), completed) == 0) {
+            return;
+        }
+        Map<LocalDate, Long> perDay = new TreeMap<>();
+        for (ResponseTaskDTO task : created) {
+            perDay.merge(task.getCreatedAt().toLocalDate(), 1L, Long::sum);
+        }
+        perDay.forEach((day, count) -> {
+            if (taskDailyCountRepository.addCreated(userId, day, count) == 0) {
+                taskDailyCountRepository.save(new TaskDailyCount(userId, day, count));
+            }
+        });
+    }
+
+    /**
+     * Applies the deletion of archived, completed tasks, in the purging transaction after the
+     * task version was bumped.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPurged(Long userId, long count) {
+        taskStatsRepository.removeCompleted(userId, count);
+    }
+
+    /**
+     * Recounts the user's tasks under the user row lock and overwrites the stored counters if
+     * they differ, creating them if missing. Returns the counters as committed.
+     */
+    public TaskStats reconcile(Long userId) {
+        Reconciled result = transactionTemplate.execute(status -> {
+            if (userRepository.lockById(userId).isEmpty()) {
+                return null;
+            }
+            long open = taskRepository.countByUserIdAndCompleted(userId, false);
+            long completed = taskRepository.countByUserIdAndCompleted(userId, true)
+                    + archivedTaskRepository.countByUserId(userId);
+            LocalDate from = windowStart(LocalDate.now());
+
+            TaskStats stats = taskStatsRepository.findById(userId).orElse(null);
+            boolean existed = stats != null;
+            boolean drifted = existed && (stats.getOpenCount() != open || stats.getCompletedCount() != completed);
+            if (!existed || drifted) {
+                stats = taskStatsRepository.save(new TaskStats(userId, open, completed));
+            }
+
+            Map<LocalDate, Long> expected = new HashMap<>();
+            taskRepository.countCreatedPerDay(userId, from.atStartOfDay())
+                    .forEach(day -> expected.merge(day.getDay(), day.getCount(), Long::sum));
+            archivedTaskRepository.countCreatedPerDay(userId, from.atStartOfDay())
+                    .forEach(day -> expected.merge(day.getDay(), day.getCount(), Long::sum));
+            Map<LocalDate, Long> stored = new HashMap<>();
+            taskDailyCountRepository.findByUserIdAndDayGreaterThanEqualOrderByDayAsc(userId, from)
+                    .forEach(day -> stored.put(day.getDay(), day.getCreatedCount()));
+            taskDailyCountRepository.deleteByUserBefore(userId, from);
+            if (!stored.equals(expected)) {
+                drifted |= existed;
+                taskDailyCountRepository.deleteByUser(userId);
+                List<TaskDailyCount> rows = new ArrayList<>(expected.size());
+                expected.forEach((day, count) -> rows.add(new TaskDailyCount(userId, day, count)));
+                taskDailyCountRepository.saveAll(rows);
+            }
+            if (drifted) {
+                log.info("Repaired drifted task stats of user {}", userId);
+            }
+            // Written here even when joining the caller's transaction, not at its next query.
+            taskDailyCountRepository.flush();
+            return new Reconciled(stats, drifted);
+        });
+        reconciled.increment();
+        if (result == null) {
+            return null;
+        }
+        if (result.repaired()) {
+            repaired.increment();
+        }
+        return result.stats();
+    }
+
+    /**
+     * Reconciles every user that has stats, one short transaction per user.
+     */
+    public void reconcileAll() {
+        Long after = 0L;
+        List<Long> userIds;
+        do {
+            userIds = taskStatsRepository.findUserIdsAfter(after, Limit.of(RECONCILE_BATCH_SIZE));
+            for (Long userId : userIds) {
+                try {
+                    reconcile(userId);
+                } catch (RuntimeException e) {
+                    log.warn("Reconciling task stats of user {} failed", userId, e);
+                }
+                after = userId;
+            }
+        } while (userIds.size() == RECONCILE_BATCH_SIZE);
+    }
+
+    public long getReconciledCount() {
+        return reconciled.sum();
+    }
+
+    public long getRepairedCount() {
+        return repaired.sum();
+    }
+
+    public BoundedCache<Long, Snapshot> getCache() {
+        return snapshots;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reconciler.shutdownNow();
+    }
+
+    private Snapshot load(Long userId, long version, long generation) {
+        LocalDate from = windowStart(LocalDate.now());
+        TaskStats stats = taskStatsRepository.findById(userId).orElseGet(() -> {
+            // Building the counters happens once per user, so it stays out of the read's budget.
+            try (SqlStatementCounter.Scope ignored = SqlStatementCounter.openSeparate()) {
+                return reconcile(userId);
+            }
+        });
+        Map<LocalDate, Long> created = new HashMap<>();
+        taskDailyCountRepository.findByUserIdAndDayGreaterThanEqualOrderByDayAsc(userId, from)
+                .forEach(day -> created.put(day.getDay(), day.getCreatedCount()));
+        return stats == null
+                ? new Snapshot(version, generation, 0, 0, Map.of())
+                : new Snapshot(version, generation, stats.getOpenCount(), stats.getCompletedCount(),
+                        Map.copyOf(created));
+    }
+
+    private LocalDate windowStart(LocalDate today) {
+        return today.minusDays(maxDays - 1L);
+    }
+
+    private void reconcileAllQuietly() {
+        try {
+            long start = System.nanoTime();
+            long repairedBefore = repaired.sum();
+            reconcileAll();
+            log.debug("Reconciled task stats in {} ms, {} repaired", (System.nanoTime() - start) / 1_000_000,
+                    repaired.sum() - repairedBefore);
+        } catch (RuntimeException e) {
+            log.warn("Reconciling task stats failed; will retry", e);
+        }
+    }
+
+    private record Reconciled(TaskStats stats, boolean repaired) {
+    }
+
+    public record Snapshot(long version, long generation, long open, long completed,
+                           Map<LocalDate, Long> createdPerDay) {
+
+        TaskStatsDTO toStats(LocalDate today, int days) {
+            List<DailyCountDTO> perDay = new ArrayList<>(days);
+            for (LocalDate day = today.minusDays(days - 1L); !day.isAfter(today); day = day.plusDays(1)) {
+                perDay.add(new DailyCountDTO(day, createdPerDay.getOrDefault(day, 0L)));
+            }
+            return new TaskStatsDTO(open, completed, perDay);
+        }
+    }
+}
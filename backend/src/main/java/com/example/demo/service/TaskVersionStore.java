@@ -0,0 +1,63 @@
+package com.example.demo.service;
+
+import com.example.demo.cache.BoundedCache;
+import com.example.demo.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Per-user task version used as the ETag of the task list. {@code app_user.task_version} is the
+ * durable counter; recent values are kept in a segmented in-memory cache so a conditional GET
+ * is answered without touching the database. Values only ever move forward in the cache, so a
+ * read that loaded an older version cannot overwrite a newer one committed meanwhile.
+ */
+@Component
+public class TaskVersionStore {
+
+    private final UserRepository userRepository;
+    private final BoundedCache<Long, Long> versions;
+
+    public TaskVersionStore(UserRepository userRepository,
+                            @Value("${tasks.version-cache.max-size}") int maxSize,
+                            @Value("${tasks.version-cache.ttl}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.versions = new BoundedCache<>(maxSize, Duration.ofMillis(ttlMillis));
+    }
+
+    public long currentVersion(Long userId) {
+        Long version = versions.get(userId);
+        if (version == null) {
+            long stored = userRepository.findTaskVersion(userId).orElse(0L);
+            version = versions.merge(userId, stored, Math::max);
+        }
+        return version;
+    }
+
+    /**
+     * Bumps the stored version as part of the caller's transaction and returns the new value.
+     * The row lock taken here also orders concurrent writers for the same user.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long increment(Long userId) {
+        userRepository.incrementTaskVersion(userId);
+        return userRepository.findTaskVersion(userId).orElse(0L);
+    }
+
+    // Runs before other listeners, so they observe the new version once they see the event.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener
+    public void onTaskChanged(TaskChangedEvent event) {
+        versions.merge(event.userId(), event.version(), Math::max);
+    }
+
+    public BoundedCache<Long, Long> getCache() {
+        return versions;
+    }
+}
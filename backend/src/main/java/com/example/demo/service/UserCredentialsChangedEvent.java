@@ -0,0 +1,8 @@
+package com.example.demo.service;
+
+/**
+ * Published whenever a user is created or their stored password changes, so anything
+ * holding a copy of their credentials can drop it.
+ */
+public record UserCredentialsChangedEvent(String email) {
+}
@@ -0,0 +1,7 @@
+package com.example.demo.service;
+
+/**
+ * Published after a successful password login, before the token is returned to the client.
+ */
+public record UserLoggedInEvent(Long userId) {
+}
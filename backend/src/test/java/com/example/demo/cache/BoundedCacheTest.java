@@ -0,0 +1,110 @@
+package com.example.demo.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedCacheTest {
+
+    private AtomicLong now;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000L);
+    }
+
+    @Test
+    void testGet_HitAndMissAreCounted() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofMinutes(1), now::get);
+        cache.put("a", "value-a");
+
+        assertEquals("value-a", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(0.5, cache.hitRatio());
+    }
+
+    @Test
+    void testGet_ExpiredEntryIsRemoved() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofMinutes(1), now::get);
+        cache.put("a", "value-a", now.get() + 500);
+
+        now.addAndGet(500);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testPut_AlreadyExpiredIsIgnored() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofMinutes(1), now::get);
+        cache.put("a", "value-a", now.get() - 1);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsedWhenFull() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(1, Duration.ofMinutes(1), now::get);
+        cache.put(1, "one");
+        cache.put(2, "two");
+
+        assertNull(cache.get(1));
+        assertEquals("two", cache.get(2));
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void testSize_StaysWithinBound() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(64, Duration.ofMinutes(1), now::get);
+        for (int i = 0; i < 1_000; i++) {
+            cache.put(i, i);
+        }
+
+        assertTrue(cache.size() <= 64);
+        assertTrue(cache.evictionCount() >= 1_000 - 64);
+    }
+
+    @Test
+    void testGetWithLoader_LoadsOnceThenHits() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofMinutes(1), now::get);
+        AtomicLong loads = new AtomicLong();
+
+        cache.get("a", key -> { loads.incrementAndGet(); return key.toUpperCase(); });
+        String value = cache.get("a", key -> { loads.incrementAndGet(); return key.toUpperCase(); });
+
+        assertEquals("A", value);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testMerge_CombinesWithLiveValueOnly() {
+        BoundedCache<String, Long> cache = new BoundedCache<>(10, Duration.ofMinutes(1), now::get);
+
+        assertEquals(5L, cache.merge("a", 5L, Math::max));
+        assertEquals(5L, cache.merge("a", 3L, Math::max));
+        assertEquals(7L, cache.merge("a", 7L, Math::max));
+
+        now.addAndGet(Duration.ofMinutes(1).toMillis());
+        assertEquals(2L, cache.merge("a", 2L, Math::max));
+    }
+
+    @Test
+    void testInvalidate() {
+        BoundedCache<String, String> cache = new BoundedCache<>(10, Duration.ofMinutes(1), now::get);
+        cache.put("a", "value-a");
+        cache.put("b", "value-b");
+
+        cache.invalidate("a");
+        assertNull(cache.get("a"));
+        assertEquals("value-b", cache.get("b"));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+}
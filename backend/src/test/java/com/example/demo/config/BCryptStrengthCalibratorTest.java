@@ -0,0 +1,32 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BCryptStrengthCalibratorTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void testStrengthFor_DoublesUntilBudget() {
+        assertEquals(12, BCryptStrengthCalibrator.strengthFor(250 * MILLIS, 60 * MILLIS, 10, 14));
+    }
+
+    @Test
+    void testStrengthFor_NeverBelowMinimum() {
+        assertEquals(10, BCryptStrengthCalibrator.strengthFor(50 * MILLIS, 60 * MILLIS, 10, 14));
+    }
+
+    @Test
+    void testStrengthFor_CappedAtMaximum() {
+        assertEquals(14, BCryptStrengthCalibrator.strengthFor(10_000 * MILLIS, MILLIS, 10, 14));
+    }
+
+    @Test
+    void testCalibrate_ZeroBudgetUsesMinimum() {
+        assertEquals(4, BCryptStrengthCalibrator.calibrate(Duration.ZERO, 4, 12));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ConnectionLimitingDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    private ConnectionLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ConnectionLimitingDataSource(target, 1, 50);
+    }
+
+    @Test
+    void testGetConnection_TimesOutWhenAllPermitsAreTaken() throws Exception {
+        when(target.getConnection()).thenReturn(connection);
+
+        Connection first = dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        assertEquals(1, dataSource.getTimeoutCount());
+        verify(target, times(1)).getConnection();
+
+        first.close();
+        assertNotNull(dataSource.getConnection());
+    }
+
+    @Test
+    void testClose_ReleasesPermitOnlyOnce() throws Exception {
+        when(target.getConnection()).thenReturn(connection);
+
+        Connection guarded = dataSource.getConnection();
+        guarded.close();
+        guarded.close();
+
+        assertEquals(1, dataSource.getAvailablePermits());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void testFailedConnection_ReleasesPermit() throws Exception {
+        when(target.getConnection()).thenThrow(new SQLException("database down"));
+
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void testOtherCallsPassThrough() throws Exception {
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(false);
+
+        Connection guarded = dataSource.getConnection();
+
+        assertFalse(guarded.getAutoCommit());
+        assertEquals(guarded, guarded);
+        assertNotEquals(guarded, connection);
+    }
+}
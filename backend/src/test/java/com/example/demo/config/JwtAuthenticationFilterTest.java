@@ -0,0 +1,142 @@
+package com.example.demo.config;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtAuthenticationFilterTest {
+
+    private static final String SECRET =
+            "ZmlsdGVyLXRlc3Qtc2VjcmV0LXRoYXQtaXMtY29tZm9ydGFibHktbG9uZ2VyLXRoYW4tc2l4dHktZm91ci1ieXRlcyEh";
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter(100, 3600000);
+        ReflectionTestUtils.setField(filter, "jwtSecret", SECRET);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testValidToken_AuthenticatesFromClaims() throws Exception {
+        String token = token(42L, "test@example.com", SECRET);
+
+        Authentication authentication = authenticate(token);
+
+        assertNotNull(authentication);
+        AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+        assertEquals(42L, principal.getId());
+        assertEquals("test@example.com", authentication.getName());
+        assertTrue(authentication.getAuthorities().stream()
+                .anyMatch(auth -> auth.getAuthority().equals("USER")));
+    }
+
+    @Test
+    void testRepeatedToken_ServedFromCache() throws Exception {
+        String token = token(42L, "test@example.com", SECRET);
+
+        authenticate(token);
+        authenticate(token);
+
+        assertEquals(1, filter.getVerifiedTokenCache().missCount());
+        assertEquals(1, filter.getVerifiedTokenCache().hitCount());
+        assertEquals(1, filter.getValidationCount(JwtAuthenticationFilter.Outcome.VALID));
+        assertEquals(1, filter.getValidationCount(JwtAuthenticationFilter.Outcome.CACHED));
+    }
+
+    @Test
+    void testCachedToken_ExpiresWithExpClaim() throws Exception {
+        // exp has second precision; the cache default of an hour must not outlive it.
+        long expiresAt = (System.currentTimeMillis() + 2000) / 1000 * 1000;
+        String token = Jwts.builder()
+                .setSubject("test@example.com")
+                .claim(AuthenticatedUser.CLAIM_USER_ID, 42L)
+                .setExpiration(new Date(expiresAt))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+
+        assertNotNull(authenticate(token));
+        assertNotNull(authenticate(token));
+        assertEquals(1, filter.getValidationCount(JwtAuthenticationFilter.Outcome.CACHED));
+
+        Thread.sleep(Math.max(0, expiresAt - System.currentTimeMillis()) + 50);
+
+        assertNull(authenticate(token));
+        assertEquals(0, filter.getVerifiedTokenCache().size());
+        assertEquals(1, filter.getValidationCount(JwtAuthenticationFilter.Outcome.CACHED));
+        assertEquals(1, filter.getValidationCount(JwtAuthenticationFilter.Outcome.EXPIRED));
+    }
+
+    @Test
+    void testInvalidSignature_NotAuthenticatedOrCached() throws Exception {
+        String forged = token(42L, "test@example.com",
+                "Zm9yZ2VkLXNlY3JldC10aGF0LWlzLWFsc28tbG9uZy1lbm91Z2gtZm9yLWhzNTEyLXNpZ25pbmctb2YtdGVzdHM=");
+
+        assertNull(authenticate(forged));
+        assertEquals(0, filter.getVerifiedTokenCache().size());
+        assertEquals(1, filter.getValidationCount(JwtAuthenticationFilter.Outcome.INVALID));
+    }
+
+    @Test
+    void testExpiredToken_CountedAsExpired() throws Exception {
+        String token = Jwts.builder()
+                .setSubject("test@example.com")
+                .claim(AuthenticatedUser.CLAIM_USER_ID, 42L)
+                .setExpiration(new Date(System.currentTimeMillis() - 60000))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+
+        assertNull(authenticate(token));
+        assertEquals(0, filter.getVerifiedTokenCache().size());
+        assertEquals(1, filter.getValidationCount(JwtAuthenticationFilter.Outcome.EXPIRED));
+        assertEquals(0, filter.getValidationCount(JwtAuthenticationFilter.Outcome.INVALID));
+    }
+
+    @Test
+    void testTokenWithoutUserId_NotAuthenticated() throws Exception {
+        String token = Jwts.builder()
+                .setSubject("test@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+
+        assertNull(authenticate(token));
+        assertEquals(0, filter.getVerifiedTokenCache().size());
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private static String token(Long userId, String email, String secret) {
+        return Jwts.builder()
+                .setSubject(email)
+                .claim(AuthenticatedUser.CLAIM_USER_ID, userId)
+                .claim(AuthenticatedUser.CLAIM_AUTHORITIES, "USER")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, secret)
+                .compact();
+    }
+}
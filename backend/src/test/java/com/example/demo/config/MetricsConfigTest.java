@@ -0,0 +1,47 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class MetricsConfigTest {
+
+    private final MetricsConfig metricsConfig = new MetricsConfig();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void testJwtValidationMetrics_CountsByOutcome() throws Exception {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(100, 3600000);
+        ReflectionTestUtils.setField(filter, "jwtSecret",
+                "bWV0cmljcy10ZXN0LXNlY3JldC10aGF0LWlzLWxvbmctZW5vdWdoLWZvci1oczUxMi1zaWduaW5nLW9mLXRlc3Qtand0cw==");
+        metricsConfig.jwtValidationMetrics(filter).bindTo(registry);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+        request.addHeader("Authorization", "Bearer not-a-jwt");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(1, registry.get("auth.jwt.validations").tag("outcome", "invalid").functionCounter().count());
+        assertEquals(0, registry.get("auth.jwt.validations").tag("outcome", "valid").functionCounter().count());
+        assertEquals(4, registry.find("auth.jwt.validations").functionCounters().size());
+    }
+
+    @Test
+    void testConnectionLimitMetrics_OnlyForLimitedDataSource() {
+        metricsConfig.connectionLimitMetrics(mock(DataSource.class)).bindTo(registry);
+        assertNull(registry.find("db.connection.limit.available").gauge());
+
+        metricsConfig.connectionLimitMetrics(new ConnectionLimitingDataSource(mock(DataSource.class), 3, 50))
+                .bindTo(registry);
+        assertEquals(3, registry.get("db.connection.limit.available").gauge().value());
+        assertEquals(0, registry.get("db.connection.limit.timeouts").functionCounter().count());
+    }
+}
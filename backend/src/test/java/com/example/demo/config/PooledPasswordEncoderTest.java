@@ -0,0 +1,55 @@
+package com.example.demo.config;
+
+import com.example.demo.service.PasswordHashingExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PooledPasswordEncoderTest {
+
+    private final PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor(1, 1, 1000, 1);
+
+    private final List<String> hashingThreads = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    void testHashingRunsOnPoolAndUpgradeCheckOnCaller() {
+        PooledPasswordEncoder encoder = new PooledPasswordEncoder(new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                hashingThreads.add(Thread.currentThread().getName());
+                return "hash:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                hashingThreads.add(Thread.currentThread().getName());
+                return encodedPassword.equals("hash:" + rawPassword);
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                hashingThreads.add(Thread.currentThread().getName());
+                return true;
+            }
+        }, hashingExecutor);
+
+        assertEquals("hash:secret", encoder.encode("secret"));
+        assertTrue(encoder.matches("secret", "hash:secret"));
+        assertFalse(encoder.matches("wrong", "hash:secret"));
+        assertTrue(encoder.upgradeEncoding("hash:secret"));
+
+        assertEquals(3, hashingThreads.stream().filter(name -> name.startsWith("password-hashing-")).count());
+        assertEquals(Thread.currentThread().getName(), hashingThreads.get(3));
+        assertEquals(3, hashingExecutor.getHashCount());
+    }
+}
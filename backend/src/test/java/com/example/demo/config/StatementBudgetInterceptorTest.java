@@ -0,0 +1,120 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatementBudgetInterceptorTest {
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @AfterEach
+    void tearDown() {
+        assertFalse(SqlStatementCounter.isCounting(), "scope left open");
+    }
+
+    @Test
+    void testLogMode_CountsOverBudgetWithoutFailing() throws Exception {
+        StatementBudgetInterceptor interceptor = new StatementBudgetInterceptor(StatementBudgetInterceptor.Mode.LOG, 3);
+        HandlerMethod handler = handler("budgetOfTwo");
+
+        interceptor.preHandle(request, response, handler);
+        SqlStatementCounter.record("select 1", false);
+        SqlStatementCounter.record("select 2", false);
+        SqlStatementCounter.record("select 3", false);
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertEquals(1, interceptor.getOverBudgetCount());
+        assertEquals(0, interceptor.getRepeatedStatementCount());
+    }
+
+    @Test
+    void testFailMode_ThrowsFromStatementOverBudget() throws Exception {
+        StatementBudgetInterceptor interceptor = new StatementBudgetInterceptor(StatementBudgetInterceptor.Mode.FAIL, 3);
+        HandlerMethod handler = handler("budgetOfTwo");
+
+        interceptor.preHandle(request, response, handler);
+        try {
+            SqlStatementCounter.record("select 1", false);
+            SqlStatementCounter.record("select 2", false);
+            assertThrows(SQLException.class, () -> SqlStatementCounter.record("select 3", false));
+        } finally {
+            interceptor.afterCompletion(request, response, handler, null);
+        }
+        assertEquals(1, interceptor.getOverBudgetCount());
+    }
+
+    @Test
+    void testFailMode_OnlyLogsRepeatsWithoutDeclaredBudget() throws Exception {
+        StatementBudgetInterceptor interceptor = new StatementBudgetInterceptor(StatementBudgetInterceptor.Mode.FAIL, 2);
+        HandlerMethod handler = handler("noBudget");
+
+        interceptor.preHandle(request, response, handler);
+        for (int i = 0; i < 5; i++) {
+            SqlStatementCounter.record("select * from task_daily_count where user_id = ? and day = ?", false);
+        }
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertEquals(0, interceptor.getOverBudgetCount());
+        assertEquals(1, interceptor.getRepeatedStatementCount());
+    }
+
+    @Test
+    void testDeclaredRepeatsOverrideDefault() throws Exception {
+        StatementBudgetInterceptor interceptor = new StatementBudgetInterceptor(StatementBudgetInterceptor.Mode.FAIL, 1);
+        HandlerMethod handler = handler("batched");
+
+        interceptor.preHandle(request, response, handler);
+        for (int i = 0; i < 10; i++) {
+            SqlStatementCounter.record("select next value for task_seq", false);
+        }
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertEquals(0, interceptor.getRepeatedStatementCount());
+    }
+
+    @Test
+    void testAsyncStart_ClosesScope() throws Exception {
+        StatementBudgetInterceptor interceptor = new StatementBudgetInterceptor(StatementBudgetInterceptor.Mode.LOG, 3);
+        HandlerMethod handler = handler("budgetOfTwo");
+
+        interceptor.preHandle(request, response, handler);
+        assertTrue(SqlStatementCounter.isCounting());
+        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+    }
+
+    @Test
+    void testOffMode_DoesNotCount() throws Exception {
+        StatementBudgetInterceptor interceptor = new StatementBudgetInterceptor(StatementBudgetInterceptor.Mode.OFF, 3);
+
+        interceptor.preHandle(request, response, handler("budgetOfTwo"));
+
+        assertFalse(SqlStatementCounter.isCounting());
+        assertEquals(StatementBudgetInterceptor.Mode.FAIL, StatementBudgetInterceptor.Mode.parse(" fail "));
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(name));
+    }
+
+    public static class Handlers {
+
+        @StatementBudget(2)
+        public void budgetOfTwo() {
+        }
+
+        public void noBudget() {
+        }
+
+        @StatementBudget(value = 20, maxRepeats = 10)
+        public void batched() {
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatementCountingDataSourceTest {
+
+    private static final String INSERT = "insert into item (id) values (?)";
+    private static final String SELECT = "select id from item where id = ?";
+
+    private StatementCountingDataSource dataSource;
+
+    private Connection keepAlive;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:statement-counting");
+        dataSource = new StatementCountingDataSource(h2);
+        keepAlive = dataSource.getConnection();
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("create table item (id int primary key)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("drop table item");
+        }
+        keepAlive.close();
+    }
+
+    @Test
+    void testStatementsCountedOnlyInsideScope() throws Exception {
+        insertItems(1);
+
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            insertItems(2, 3);
+            findItem(2);
+            findItem(3);
+
+            assertEquals(4, scope.getCount());
+            assertEquals(Map.of(INSERT, 2, SELECT, 2), scope.getExecutions());
+        }
+
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            assertEquals(0, scope.getCount());
+        }
+    }
+
+    @Test
+    void testBatchCountsOnceAndNotAsRepeat() throws Exception {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open(10, 1, true);
+             Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            for (int id = 1; id <= 100; id++) {
+                insert.setInt(1, id);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+            insert.executeBatch();
+
+            assertEquals(2, scope.getCount());
+            assertTrue(scope.getRepeatedStatements().isEmpty());
+        }
+    }
+
+    @Test
+    void testEnforcedScope_FailsStatementOverBudgetBeforeItRuns() throws Exception {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open(2, StatementBudget.UNLIMITED, true)) {
+            insertItems(1, 2);
+
+            SQLException e = assertThrows(SQLException.class, () -> insertItems(3));
+            assertTrue(e.getMessage().startsWith("Statement budget of 2 exceeded"));
+            assertEquals(3, scope.getCount());
+        }
+        assertEquals(2, countItems());
+    }
+
+    @Test
+    void testEnforcedScope_FailsRepeatedStatement() throws Exception {
+        insertItems(1);
+
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open(StatementBudget.UNLIMITED, 2, true)) {
+            findItem(1);
+            findItem(1);
+
+            SQLException e = assertThrows(SQLException.class, () -> findItem(1));
+            assertTrue(e.getMessage().contains("N+1"));
+            assertEquals(Map.of(SELECT, 3), scope.getRepeatedStatements());
+        }
+    }
+
+    @Test
+    void testNestedScopes_BothCount() throws Exception {
+        try (SqlStatementCounter.Scope outer = SqlStatementCounter.open()) {
+            insertItems(1);
+            try (SqlStatementCounter.Scope inner = SqlStatementCounter.open()) {
+                findItem(1);
+                assertEquals(1, inner.getCount());
+            }
+            findItem(1);
+            assertEquals(3, outer.getCount());
+        }
+    }
+
+    @Test
+    void testSeparateScope_NotCountedOutside() throws Exception {
+        try (SqlStatementCounter.Scope outer = SqlStatementCounter.open(1, StatementBudget.UNLIMITED, true)) {
+            insertItems(1);
+            try (SqlStatementCounter.Scope separate = SqlStatementCounter.openSeparate()) {
+                findItem(1);
+                findItem(1);
+                assertEquals(2, separate.getCount());
+            }
+            assertEquals(1, outer.getCount());
+        }
+    }
+
+    private void insertItems(int... ids) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            for (int id : ids) {
+                insert.setInt(1, id);
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    private void findItem(int id) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(SELECT)) {
+            select.setInt(1, id);
+            try (ResultSet rows = select.executeQuery()) {
+                assertTrue(rows.next());
+            }
+        }
+    }
+
+    private int countItems() throws SQLException {
+        try (Statement statement = keepAlive.createStatement();
+             ResultSet rows = statement.executeQuery("select count(*) from item")) {
+            rows.next();
+            return rows.getInt(1);
+        }
+    }
+}
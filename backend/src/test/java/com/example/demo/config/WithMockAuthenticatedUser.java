@@ -0,0 +1,17 @@
+package com.example.demo.config;
+
+import org.springframework.security.test.context.support.WithSecurityContext;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+@Retention(RetentionPolicy.RUNTIME)
+@WithSecurityContext(factory = WithMockAuthenticatedUserSecurityContextFactory.class)
+public @interface WithMockAuthenticatedUser {
+
+    long id() default 1L;
+
+    String username() default "test@example.com";
+
+    String[] authorities() default {"USER"};
+}
@@ -0,0 +1,18 @@
+package com.example.demo.config;
+
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.context.support.WithSecurityContextFactory;
+
+public class WithMockAuthenticatedUserSecurityContextFactory implements WithSecurityContextFactory<WithMockAuthenticatedUser> {
+
+    @Override
+    public SecurityContext createSecurityContext(WithMockAuthenticatedUser annotation) {
+        AuthenticatedUser principal = new AuthenticatedUser(annotation.id(), annotation.username(), null,
+                AuthorityUtils.createAuthorityList(annotation.authorities()));
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new JwtAuthenticationToken(principal));
+        return context;
+    }
+}
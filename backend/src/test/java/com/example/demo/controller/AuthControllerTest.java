@@ -1,7 +1,11 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.AuthenticatedUser;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.service.HashingCapacityExceededException;
+import com.example.demo.service.UserCredentialsChangedEvent;
+import com.example.demo.service.UserLoggedInEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,13 +19,17 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -32,9 +40,11 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @ExtendWith(MockitoExtension.class)
 @WebMvcTest(AuthController.class)
 @TestPropertySource(properties = {
-    "jwt.secret=mySecretKeyThatIsAtLeast512BitsLongForHS512AlgorithmToWorkProperlyWithJSONWebTokens",
+    // Base64 of an 80-byte key; HS512 signing rejects keys under 64 bytes.
+    "jwt.secret=YXV0aC1jb250cm9sbGVyLXRlc3Qtc2VjcmV0LXRoYXQtZGVjb2Rlcy10by13ZWxsLW92ZXItc2l4dHktZm91ci1ieXRlcy1mb3ItaHM1MTI=",
     "jwt.expiration=3600000"
 })
+@RecordApplicationEvents
 public class AuthControllerTest {
 
     @Autowired
@@ -52,6 +62,9 @@ public class AuthControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
     private User testUser;
 
     @BeforeEach
@@ -80,6 +93,9 @@ public class AuthControllerTest {
         verify(userRepository).findByEmail("test@example.com");
         verify(passwordEncoder).encode("password123");
         verify(userRepository).save(any(User.class));
+        assertEquals(1, applicationEvents.stream(UserCredentialsChangedEvent.class)
+                .filter(event -> event.email().equals("test@example.com"))
+                .count());
     }
 
     @Test
@@ -97,6 +113,26 @@ public class AuthControllerTest {
         verify(userRepository).findByEmail("test@example.com");
         verify(passwordEncoder, never()).encode(anyString());
         verify(userRepository, never()).save(any(User.class));
+        assertEquals(0, applicationEvents.stream(UserCredentialsChangedEvent.class).count());
+    }
+
+    @Test
+    @WithMockUser
+    void testLogin_SuccessPublishesLoginEvent() throws Exception {
+        AuthenticatedUser principal = new AuthenticatedUser(1L, "test@example.com", "encodedPassword",
+                AuthorityUtils.createAuthorityList("USER"));
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        mockMvc.perform(post("/api/auth/login")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testUser)))
+                .andExpect(status().isOk());
+
+        assertEquals(1, applicationEvents.stream(UserLoggedInEvent.class)
+                .filter(event -> event.userId().equals(1L))
+                .count());
     }
 
     @Test
@@ -116,6 +152,21 @@ public class AuthControllerTest {
                 .andExpect(status().isUnauthorized());
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        assertEquals(0, applicationEvents.stream(UserLoggedInEvent.class).count());
+    }
+
+    @Test
+    @WithMockUser
+    void testLogin_HashingSaturatedIsServiceUnavailable() throws Exception {
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new HashingCapacityExceededException("Password hashing capacity exceeded", 2));
+
+        mockMvc.perform(post("/api/auth/login")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testUser)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
     }
 
     @Test
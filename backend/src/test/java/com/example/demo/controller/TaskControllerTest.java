@@ -1,10 +1,20 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.WithMockAuthenticatedUser;
+import com.example.demo.dto.BatchRequestDTO;
+import com.example.demo.dto.BatchResponseDTO;
+import com.example.demo.dto.BatchResponseDTO.CompleteResultDTO;
 import com.example.demo.dto.CreateTaskDTO;
-import com.example.demo.model.Task;
-import com.example.demo.model.User;
-import com.example.demo.repository.TaskRepository;
-import com.example.demo.repository.UserRepository;
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.dto.DailyCountDTO;
+import com.example.demo.dto.ImportResultDTO;
+import com.example.demo.dto.TaskCursor;
+import com.example.demo.dto.TaskStatsDTO;
+import com.example.demo.service.TaskEventHub;
+import com.example.demo.service.TaskExporter;
+import com.example.demo.service.TaskImporter;
+import com.example.demo.service.TaskService;
+import com.example.demo.service.TaskStatsService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,17 +23,27 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -37,33 +57,29 @@ public class TaskControllerTest {
     private MockMvc mockMvc;
 
     @MockBean
-    private TaskRepository taskRepository;
+    private TaskService taskService;
 
     @MockBean
-    private UserRepository userRepository;
+    private TaskEventHub taskEventHub;
+
+    @MockBean
+    private TaskStatsService taskStatsService;
+
+    @MockBean
+    private TaskExporter taskExporter;
+
+    @MockBean
+    private TaskImporter taskImporter;
 
     @Autowired
     private ObjectMapper objectMapper;
 
-    private User testUser;
-    private Task testTask;
+    private ResponseTaskDTO testTaskView;
     private CreateTaskDTO createTaskDTO;
 
     @BeforeEach
     void setUp() {
-        testUser = new User();
-        testUser.setId(1L);
-        testUser.setEmail("test@example.com");
-        testUser.setFullName("Test User");
-        testUser.setPassword("password");
-
-        testTask = new Task();
-        testTask.setId(1L);
-        testTask.setTitle("Test Task");
-        testTask.setDescription("Test Description");
-        testTask.setCompleted(false);
-        testTask.setCreatedAt(LocalDateTime.now());
-        testTask.setUser(testUser);
+        testTaskView = new ResponseTaskDTO(1L, "Test Task", "Test Description", false, LocalDateTime.now());
 
         createTaskDTO = new CreateTaskDTO();
         createTaskDTO.setTitle("New Task");
@@ -71,10 +87,9 @@ public class TaskControllerTest {
     }
 
     @Test
-    @WithMockUser(username = "test@example.com")
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
     void testCreateTask_Success() throws Exception {
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(taskRepository.save(any(Task.class))).thenReturn(testTask);
+        when(taskService.createTask(eq(1L), any(CreateTaskDTO.class))).thenReturn(testTaskView);
 
         mockMvc.perform(post("/api/tasks")
                 .with(csrf())
@@ -86,25 +101,17 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$.description").value("Test Description"))
                 .andExpect(jsonPath("$.completed").value(false));
 
-        verify(userRepository).findByEmail("test@example.com");
-        verify(taskRepository).save(any(Task.class));
+        verify(taskService).createTask(eq(1L), any(CreateTaskDTO.class));
     }
 
     @Test
-    @WithMockUser(username = "test@example.com")
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
     void testGetTasks_Success() throws Exception {
-        Task task2 = new Task();
-        task2.setId(2L);
-        task2.setTitle("Task 2");
-        task2.setDescription("Description 2");
-        task2.setCompleted(false);
-        task2.setCreatedAt(LocalDateTime.now());
-        task2.setUser(testUser);
+        ResponseTaskDTO task2 = new ResponseTaskDTO(2L, "Task 2", "Description 2", false, LocalDateTime.now());
 
-        List<Task> tasks = Arrays.asList(testTask, task2);
+        List<ResponseTaskDTO> tasks = Arrays.asList(testTaskView, task2);
 
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(taskRepository.findTop5ByUserAndCompletedFalseOrderByCreatedAtDesc(testUser)).thenReturn(tasks);
+        when(taskService.getTasks(1L, false, null, Limit.of(6))).thenReturn(tasks);
 
         mockMvc.perform(get("/api/tasks"))
                 .andExpect(status().isOk())
@@ -114,38 +121,387 @@ public class TaskControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].title").value("Task 2"));
 
-        verify(userRepository).findByEmail("test@example.com");
-        verify(taskRepository).findTop5ByUserAndCompletedFalseOrderByCreatedAtDesc(testUser);
+        verify(taskService).getTasks(1L, false, null, Limit.of(6));
     }
 
     @Test
-    @WithMockUser(username = "test@example.com")
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
     void testGetTasks_EmptyList() throws Exception {
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(taskRepository.findTop5ByUserAndCompletedFalseOrderByCreatedAtDesc(testUser)).thenReturn(Arrays.asList());
+        when(taskService.getTasks(1L, false, null, Limit.of(6))).thenReturn(Arrays.asList());
 
         mockMvc.perform(get("/api/tasks"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(0));
 
-        verify(userRepository).findByEmail("test@example.com");
-        verify(taskRepository).findTop5ByUserAndCompletedFalseOrderByCreatedAtDesc(testUser);
+        verify(taskService).getTasks(1L, false, null, Limit.of(6));
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testGetTasks_FullPageReturnsNextCursor() throws Exception {
+        LocalDateTime baseTime = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<ResponseTaskDTO> tasks = new ArrayList<>();
+        for (long i = 3; i >= 1; i--) {
+            tasks.add(new ResponseTaskDTO(i, "Task " + i, null, false, baseTime.plusMinutes(i)));
+        }
+
+        when(taskService.getTasks(1L, false, null, Limit.of(3))).thenReturn(tasks);
+
+        String expectedCursor = new TaskCursor(baseTime.plusMinutes(2), 2L).encode();
+        mockMvc.perform(get("/api/tasks").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[1].id").value(2))
+                .andExpect(header().string(TaskController.NEXT_CURSOR_HEADER, expectedCursor));
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testGetTasks_LastPageHasNoCursor() throws Exception {
+        when(taskService.getTasks(1L, false, null, Limit.of(6))).thenReturn(List.of(testTaskView));
+
+        mockMvc.perform(get("/api/tasks"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().doesNotExist(TaskController.NEXT_CURSOR_HEADER));
     }
 
     @Test
-    @WithMockUser(username = "test@example.com")
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testGetTasks_WithCursorAndStatus() throws Exception {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        TaskCursor after = new TaskCursor(createdAt, 7L);
+        String cursor = after.encode();
+
+        when(taskService.getTasks(1L, null, after, Limit.of(6))).thenReturn(List.of(testTaskView));
+        when(taskService.getTasks(1L, true, after, Limit.of(6))).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/tasks").param("cursor", cursor).param("status", "all"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        mockMvc.perform(get("/api/tasks").param("cursor", cursor).param("status", "completed"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        verify(taskService).getTasks(1L, null, after, Limit.of(6));
+        verify(taskService).getTasks(1L, true, after, Limit.of(6));
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testGetTasks_ReturnsVersionETag() throws Exception {
+        when(taskService.getTaskListVersion(1L)).thenReturn("4");
+
+        mockMvc.perform(get("/api/tasks"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, TaskController.taskListETag(1L, "4", false, null, 5)))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"));
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testGetTasks_ETagDiffersPerQuery() throws Exception {
+        when(taskService.getTaskListVersion(1L)).thenReturn("4");
+        String firstPage = TaskController.taskListETag(1L, "4", false, null, 5);
+        TaskCursor after = new TaskCursor(LocalDateTime.of(2024, 1, 1, 12, 0), 7L);
+
+        mockMvc.perform(get("/api/tasks").param("cursor", after.encode()).header(HttpHeaders.IF_NONE_MATCH, firstPage))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, TaskController.taskListETag(1L, "4", false, after, 5)));
+        mockMvc.perform(get("/api/tasks").param("status", "all").header(HttpHeaders.IF_NONE_MATCH, firstPage))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/tasks").param("size", "10").header(HttpHeaders.IF_NONE_MATCH, firstPage))
+                .andExpect(status().isOk());
+        // An explicit default is the same query.
+        mockMvc.perform(get("/api/tasks").param("status", "open").param("size", "5")
+                        .header(HttpHeaders.IF_NONE_MATCH, firstPage))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testGetTasks_MatchingETagSkipsQuery() throws Exception {
+        when(taskService.getTaskListVersion(1L)).thenReturn("4");
+
+        String etag = TaskController.taskListETag(1L, "4", false, null, 5);
+
+        mockMvc.perform(get("/api/tasks").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        verify(taskService, never()).getTasks(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testGetTasks_StaleETagReturnsList() throws Exception {
+        when(taskService.getTaskListVersion(1L)).thenReturn("5");
+        when(taskService.getTasks(1L, false, null, Limit.of(6))).thenReturn(List.of(testTaskView));
+
+        mockMvc.perform(get("/api/tasks")
+                        .header(HttpHeaders.IF_NONE_MATCH, TaskController.taskListETag(1L, "4", false, null, 5)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, TaskController.taskListETag(1L, "5", false, null, 5)))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testGetTasks_InvalidCursorOrStatus() throws Exception {
+        mockMvc.perform(get("/api/tasks").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/tasks").param("status", "archived"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testSearchTasks_DefaultsToAllStatesAndPageSize() throws Exception {
+        when(taskService.searchTasks(1L, "groc", null, 5)).thenReturn(List.of(testTaskView));
+
+        mockMvc.perform(get("/api/tasks/search").param("q", "groc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Test Task"));
+
+        mockMvc.perform(get("/api/tasks/search").param("q", "groc").param("status", "open").param("size", "1000"))
+                .andExpect(status().isOk());
+
+        verify(taskService).searchTasks(1L, "groc", false, 100);
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testSearchTasks_RequiresQuery() throws Exception {
+        mockMvc.perform(get("/api/tasks/search"))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService, never()).searchTasks(anyLong(), any(), any(), anyInt());
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testGetArchivedTasks_PagesWithoutETag() throws Exception {
+        ResponseTaskDTO first = new ResponseTaskDTO(9L, "Old", null, true, LocalDateTime.of(2024, 1, 2, 0, 0));
+        ResponseTaskDTO second = new ResponseTaskDTO(8L, "Older", null, true, LocalDateTime.of(2024, 1, 1, 0, 0));
+        when(taskService.getArchivedTasks(1L, null, Limit.of(2))).thenReturn(List.of(first, second));
+
+        mockMvc.perform(get("/api/tasks/archive").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].completed").value(true))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().string(TaskController.NEXT_CURSOR_HEADER,
+                        new TaskCursor(first.getCreatedAt(), 9L).encode()));
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testGetStats_Success() throws Exception {
+        LocalDate today = LocalDate.now();
+        when(taskStatsService.getStats(1L, 2)).thenReturn(new TaskStatsDTO(3, 4, List.of(
+                new DailyCountDTO(today.minusDays(1), 0L), new DailyCountDTO(today, 2L))));
+
+        mockMvc.perform(get("/api/tasks/stats").param("days", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.open").value(3))
+                .andExpect(jsonPath("$.completed").value(4))
+                .andExpect(jsonPath("$.createdPerDay.length()").value(2))
+                .andExpect(jsonPath("$.createdPerDay[1].day").value(today.toString()))
+                .andExpect(jsonPath("$.createdPerDay[1].count").value(2));
+
+        mockMvc.perform(get("/api/tasks/stats"))
+                .andExpect(status().isOk());
+
+        verify(taskStatsService).getStats(1L, 30);
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testExportTasks_StreamsAttachment() throws Exception {
+        TaskExporter.Export export = mock(TaskExporter.Export.class);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write("id,title\r\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(export).writeTo(any());
+        when(taskExporter.open(1L, TaskExporter.Format.CSV)).thenReturn(export);
+
+        MvcResult result = mockMvc.perform(get("/api/tasks/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks.csv\""))
+                .andExpect(content().string("id,title\r\n"));
+        verify(export).close();
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testExportTasks_RejectedWhenBusy() throws Exception {
+        when(taskExporter.open(1L, TaskExporter.Format.NDJSON)).thenReturn(null);
+
+        mockMvc.perform(get("/api/tasks/export"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testExportTasks_UnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/tasks/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(taskExporter);
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testImportTasks_ReturnsSummary() throws Exception {
+        ImportResultDTO result = new ImportResultDTO();
+        result.setImported(2);
+        result.setChunks(1);
+        when(taskImporter.importTasks(eq(1L), any())).thenReturn(result);
+
+        mockMvc.perform(post("/api/tasks/import")
+                .with(csrf())
+                .contentType("application/x-ndjson")
+                .content("{\"title\":\"A\"}\n{\"title\":\"B\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.aborted").value(false));
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testImportTasks_AbortedIsBadRequest() throws Exception {
+        ImportResultDTO result = new ImportResultDTO();
+        result.setImported(500);
+        result.setAborted(true);
+        result.getErrors().add(new ImportResultDTO.ImportErrorDTO(501, "Malformed JSON, import stopped"));
+        when(taskImporter.importTasks(eq(1L), any())).thenReturn(result);
+
+        mockMvc.perform(post("/api/tasks/import")
+                .with(csrf())
+                .contentType("application/x-ndjson")
+                .content("{\"title\": oops}\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.imported").value(500))
+                .andExpect(jsonPath("$.errors[0].line").value(501));
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
     void testCompleteTask_Success() throws Exception {
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
-        when(taskRepository.save(any(Task.class))).thenReturn(testTask);
+        when(taskService.completeTask(1L, 1L)).thenReturn(true);
 
         mockMvc.perform(put("/api/tasks/1/complete")
                 .with(csrf()))
-                .andExpect(status().isOk());
+                .andExpect(status().isNoContent());
+
+        verify(taskService).completeTask(1L, 1L);
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testCompleteTask_NotFoundOrNotOwned() throws Exception {
+        when(taskService.completeTask(1L, 99L)).thenReturn(false);
+
+        mockMvc.perform(put("/api/tasks/99/complete")
+                .with(csrf()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testCompleteTasks_Bulk() throws Exception {
+        when(taskService.completeTasks(1L, Set.of(1L, 2L, 3L))).thenReturn(2);
+
+        mockMvc.perform(put("/api/tasks/complete")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 2, 3, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.completed").value(2));
+
+        verify(taskService).completeTasks(1L, Set.of(1L, 2L, 3L));
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testCompleteTasks_EmptyList() throws Exception {
+        mockMvc.perform(put("/api/tasks/complete")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(0));
+
+        verify(taskService).completeTasks(1L, Set.of());
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testCompleteTasks_NullIdIsBadRequest() throws Exception {
+        mockMvc.perform(put("/api/tasks/complete")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, null]"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/tasks/batch")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"complete\": [null]}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(taskService);
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testApplyBatch_Success() throws Exception {
+        BatchRequestDTO request = new BatchRequestDTO();
+        request.setCreate(List.of(createTaskDTO));
+        request.setComplete(List.of(1L, 99L));
+
+        BatchResponseDTO response = new BatchResponseDTO();
+        response.getCreated().add(testTaskView);
+        response.getCompleted().add(new CompleteResultDTO(1L, CompleteResultDTO.COMPLETED));
+        response.getCompleted().add(new CompleteResultDTO(99L, CompleteResultDTO.NOT_FOUND));
+        when(taskService.applyBatch(eq(1L), any(BatchRequestDTO.class))).thenReturn(response);
+
+        mockMvc.perform(post("/api/tasks/batch")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created.length()").value(1))
+                .andExpect(jsonPath("$.created[0].id").value(1))
+                .andExpect(jsonPath("$.completed[0].status").value("completed"))
+                .andExpect(jsonPath("$.completed[1].id").value(99))
+                .andExpect(jsonPath("$.completed[1].status").value("not_found"));
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testApplyBatch_TooManyItems() throws Exception {
+        BatchRequestDTO request = new BatchRequestDTO();
+        request.setComplete(LongStream.rangeClosed(1, 501).boxed().collect(Collectors.toList()));
+
+        mockMvc.perform(post("/api/tasks/batch")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
 
-        verify(userRepository).findByEmail("test@example.com");
-        verify(taskRepository).findById(1L);
-        verify(taskRepository).save(any(Task.class));
+        verify(taskService, never()).applyBatch(anyLong(), any());
     }
 
     @Test
@@ -156,8 +512,7 @@ public class TaskControllerTest {
                 .content(objectMapper.writeValueAsString(createTaskDTO)))
                 .andExpect(status().isUnauthorized());
 
-        verify(userRepository, never()).findByEmail(anyString());
-        verify(taskRepository, never()).save(any(Task.class));
+        verify(taskService, never()).createTask(anyLong(), any());
     }
 
     @Test
@@ -165,7 +520,6 @@ public class TaskControllerTest {
         mockMvc.perform(get("/api/tasks"))
                 .andExpect(status().isUnauthorized());
 
-        verify(userRepository, never()).findByEmail(anyString());
-        verify(taskRepository, never()).findTop5ByUserAndCompletedFalseOrderByCreatedAtDesc(any(User.class));
+        verifyNoInteractions(taskService);
     }
 }
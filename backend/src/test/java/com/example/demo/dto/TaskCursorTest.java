@@ -0,0 +1,32 @@
+package com.example.demo.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskCursorTest {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        TaskCursor cursor = new TaskCursor(LocalDateTime.of(2024, 3, 15, 10, 30, 45, 123456000), 42L);
+
+        TaskCursor decoded = TaskCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void testEncodedFormIsUrlSafe() {
+        String encoded = new TaskCursor(LocalDateTime.of(2024, 3, 15, 10, 30), Long.MAX_VALUE).encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void testDecodeInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> TaskCursor.decode("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> TaskCursor.decode("%%%"));
+    }
+}
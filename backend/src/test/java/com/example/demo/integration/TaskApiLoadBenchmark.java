@@ -0,0 +1,422 @@
+package com.example.demo.integration;
+
+import com.example.demo.TodoAppApplication;
+import com.example.demo.dto.BatchRequestDTO;
+import com.example.demo.dto.BatchResponseDTO;
+import com.example.demo.dto.CreateTaskDTO;
+import com.example.demo.dto.ResponseTaskDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Open-loop load test of the task API through real HTTP. Starts the app on a random port
+ * against an in-memory H2 database, or the PostgreSQL database given by {@code load.db-url},
+ * registers and logs in {@code load.users} users through {@code /api/auth}, gives each
+ * {@code load.seed-tasks} open tasks, then sends create, list and complete requests in the
+ * {@code load.mix} proportions at a fixed {@code load.rate} per second.
+ * <p>
+ * Requests are started on schedule, each on its own virtual thread, whether or not earlier
+ * ones have finished, and response time is measured from the time a request was scheduled to
+ * start rather than from when it was sent. A stall therefore shows up in the percentiles of
+ * every request it delayed (no coordinated omission); service time, from the actual send, is
+ * reported next to it. Run on demand with, for example:
+ * <pre>mvn test -Dtest=TaskApiLoadBenchmark -Dbenchmarks=true -Dload.rate=500 -Dload.duration=60</pre>
+ * Settings, with their defaults: {@code load.rate=200} requests per second,
+ * {@code load.warmup=10} and {@code load.duration=30} seconds, {@code load.users=50},
+ * {@code load.seed-tasks=20}, {@code load.mix=create:20,list:70,complete:10},
+ * {@code load.timeout=30} seconds, {@code load.db-url}, {@code load.db-username},
+ * {@code load.db-password}, and {@code load.hgrm-dir} to also write each histogram as an
+ * {@code .hgrm} percentile distribution. Any {@code load.app.*} property is passed to the app
+ * with the prefix removed, e.g. {@code -Dload.app.spring.threads.virtual.enabled=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class TaskApiLoadBenchmark {
+
+    private static final String SECRET =
+            "YmVuY2htYXJrLXNlY3JldC10aGF0LWlzLWNvbWZvcnRhYmx5LWxvbmdlci10aGFuLXNpeHR5LWZvdXItYnl0ZXMhIQ==";
+    private static final String APP_PREFIX = "load.app.";
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final int SEED_CONCURRENCY = 8;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    enum Operation { CREATE, LIST, COMPLETE }
+
+    @Test
+    void runLoad() throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+        try (ConfigurableApplicationContext context = start(settings)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI base = URI.create("http://localhost:" + port);
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(settings.timeout())
+                    .build();
+
+            List<Session> sessions = seed(client, base, settings);
+            Report report = drive(client, base, sessions, settings);
+
+            System.out.println(report.format(settings));
+            if (settings.hgrmDir() != null) {
+                report.writeHistograms(settings.hgrmDir());
+            }
+            assertTrue(report.total().completed() > 0, "No request succeeded");
+        }
+    }
+
+    private static ConfigurableApplicationContext start(Settings settings) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("management.server.port", "0");
+        properties.put("jwt.secret", SECRET);
+        if (settings.dbUrl() == null) {
+            properties.put("spring.datasource.url", "jdbc:h2:mem:load");
+            properties.put("spring.datasource.driverClassName", "org.h2.Driver");
+            properties.put("spring.datasource.username", "sa");
+            properties.put("spring.datasource.password", "");
+            properties.put("spring.jpa.database-platform", "org.hibernate.dialect.H2Dialect");
+            properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        } else {
+            properties.put("spring.datasource.url", settings.dbUrl());
+            properties.put("spring.datasource.username", settings.dbUsername());
+            properties.put("spring.datasource.password", settings.dbPassword());
+        }
+        properties.putAll(settings.appProperties());
+        // Command-line arguments, so application.properties cannot override them.
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(TodoAppApplication.class).run(args);
+    }
+
+    // Users get unique emails per run, so a PostgreSQL database can be reused between runs.
+    private List<Session> seed(HttpClient client, URI base, Settings settings) throws Exception {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        List<Session> sessions = new ArrayList<>();
+        List<Future<?>> seeded = new ArrayList<>();
+        Semaphore concurrency = new Semaphore(SEED_CONCURRENCY);
+        try (ExecutorService seeders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < settings.users(); i++) {
+                Session session = new Session(new ConcurrentLinkedDeque<>());
+                sessions.add(session);
+                String email = "load-" + run + "-" + i + "@example.com";
+                seeded.add(seeders.submit(() -> {
+                    concurrency.acquire();
+                    try {
+                        session.token = register(client, base, email, settings);
+                        seedTasks(client, base, session, settings);
+                    } finally {
+                        concurrency.release();
+                    }
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> future : seeded) {
+            future.get();
+        }
+        return sessions;
+    }
+
+    private String register(HttpClient client, URI base, String email, Settings settings)
+            throws IOException, InterruptedException {
+        String credentials = objectMapper.writeValueAsString(Map.of(
+                "email", email, "password", "load-test-password", "fullName", "Load User"));
+        HttpResponse<String> registered = sendRetryingWhenBusy(client,
+                json(base.resolve("/api/auth/register"), settings).POST(body(credentials)).build());
+        assertEquals(200, registered.statusCode(), registered.body());
+        HttpResponse<String> login = sendRetryingWhenBusy(client,
+                json(base.resolve("/api/auth/login"), settings).POST(body(credentials)).build());
+        assertEquals(200, login.statusCode(), login.body());
+        return login.body();
+    }
+
+    private void seedTasks(HttpClient client, URI base, Session session, Settings settings)
+            throws IOException, InterruptedException {
+        if (settings.seedTasks() == 0) {
+            return;
+        }
+        BatchRequestDTO batch = new BatchRequestDTO();
+        for (int i = 0; i < settings.seedTasks(); i++) {
+            CreateTaskDTO createTaskDTO = new CreateTaskDTO();
+            createTaskDTO.setTitle("Seed task " + i);
+            batch.getCreate().add(createTaskDTO);
+        }
+        HttpRequest request = authorized(json(base.resolve("/api/tasks/batch"), settings), session)
+                .POST(body(objectMapper.writeValueAsString(batch)))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        for (ResponseTaskDTO task : objectMapper.readValue(response.body(), BatchResponseDTO.class).getCreated()) {
+            session.openTasks.add(task.getId());
+        }
+    }
+
+    // Registration and login are throttled by the password hashing executor; 503 means try again.
+    private static HttpResponse<String> sendRetryingWhenBusy(HttpClient client, HttpRequest request)
+            throws IOException, InterruptedException {
+        while (true) {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 503) {
+                return response;
+            }
+            long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+            Thread.sleep(TimeUnit.SECONDS.toMillis(retryAfter));
+        }
+    }
+
+    private Report drive(HttpClient client, URI base, List<Session> sessions, Settings settings) {
+        Report report = new Report();
+        double nanosPerRequest = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intended = start + (long) (i * nanosPerRequest);
+                if (intended >= end) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Operation operation = settings.pick(random.nextInt(settings.mixTotal()));
+                Session session = sessions.get(random.nextInt(sessions.size()));
+                Stats stats = intended >= measureFrom ? report.stats.get(operation) : null;
+                requests.execute(() -> send(client, base, operation, session, intended, stats, settings));
+            }
+        }
+        return report;
+    }
+
+    private void send(HttpClient client, URI base, Operation operation, Session session, long intended,
+                      Stats stats, Settings settings) {
+        Long completing = null;
+        try {
+            HttpRequest.Builder request = authorized(json(base.resolve("/api/tasks"), settings), session);
+            int expected = 200;
+            switch (operation) {
+                case CREATE -> request.POST(body("{\"title\":\"Load task\",\"description\":\"Created under load\"}"));
+                case LIST -> request.uri(base.resolve("/api/tasks?size=20")).GET();
+                case COMPLETE -> {
+                    completing = session.openTasks.poll();
+                    if (completing == null) {
+                        if (stats != null) {
+                            stats.skipped.increment();
+                        }
+                        return;
+                    }
+                    request.uri(base.resolve("/api/tasks/" + completing + "/complete"))
+                            .PUT(HttpRequest.BodyPublishers.noBody());
+                    expected = 204;
+                }
+            }
+            long sent = System.nanoTime();
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            long done = System.nanoTime();
+            if (response.statusCode() != expected) {
+                if (stats != null) {
+                    stats.errors.increment();
+                }
+                return;
+            }
+            if (operation == Operation.CREATE) {
+                session.openTasks.add(objectMapper.readValue(response.body(), ResponseTaskDTO.class).getId());
+            }
+            completing = null;
+            if (stats != null) {
+                stats.record(done - intended, done - sent);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (stats != null) {
+                stats.errors.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (completing != null) {
+                // Not completed after all; let a later request try again.
+                session.openTasks.add(completing);
+            }
+        }
+    }
+
+    private static HttpRequest.Builder json(URI uri, Settings settings) {
+        return HttpRequest.newBuilder(uri).timeout(settings.timeout()).header("Content-Type", "application/json");
+    }
+
+    private static HttpRequest.Builder authorized(HttpRequest.Builder request, Session session) {
+        return request.header("Authorization", "Bearer " + session.token);
+    }
+
+    private static HttpRequest.BodyPublisher body(String json) {
+        return HttpRequest.BodyPublishers.ofString(json);
+    }
+
+    private static final class Session {
+        private final ConcurrentLinkedDeque<Long> openTasks;
+        private volatile String token;
+
+        Session(ConcurrentLinkedDeque<Long> openTasks) {
+            this.openTasks = openTasks;
+        }
+    }
+
+    private record Settings(double rate, Duration warmup, Duration duration, int users, int seedTasks,
+                            Map<Operation, Integer> mix, Duration timeout, String dbUrl, String dbUsername,
+                            String dbPassword, File hgrmDir, Map<String, Object> appProperties) {
+
+        static Settings fromSystemProperties() {
+            Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+            for (String entry : System.getProperty("load.mix", "create:20,list:70,complete:10").split(",")) {
+                String[] weight = entry.trim().split(":");
+                mix.put(Operation.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+            }
+            Map<String, Object> appProperties = new LinkedHashMap<>();
+            System.getProperties().stringPropertyNames().stream()
+                    .filter(name -> name.startsWith(APP_PREFIX))
+                    .forEach(name -> appProperties.put(name.substring(APP_PREFIX.length()), System.getProperty(name)));
+            String hgrmDir = System.getProperty("load.hgrm-dir");
+            return new Settings(
+                    Double.parseDouble(System.getProperty("load.rate", "200")),
+                    Duration.ofSeconds(Long.getLong("load.warmup", 10)),
+                    Duration.ofSeconds(Long.getLong("load.duration", 30)),
+                    Integer.getInteger("load.users", 50),
+                    Integer.getInteger("load.seed-tasks", 20),
+                    mix,
+                    Duration.ofSeconds(Long.getLong("load.timeout", 30)),
+                    System.getProperty("load.db-url"),
+                    System.getProperty("load.db-username", ""),
+                    System.getProperty("load.db-password", ""),
+                    hgrmDir == null ? null : new File(hgrmDir),
+                    appProperties);
+        }
+
+        int mixTotal() {
+            return mix.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        Operation pick(int roll) {
+            for (Map.Entry<Operation, Integer> weight : mix.entrySet()) {
+                roll -= weight.getValue();
+                if (roll < 0) {
+                    return weight.getKey();
+                }
+            }
+            throw new IllegalStateException("Empty load.mix");
+        }
+    }
+
+    private static final class Stats {
+        private final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+
+        void record(long responseNanos, long serviceNanos) {
+            responseTime.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(responseNanos)));
+            serviceTime.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(serviceNanos)));
+        }
+
+        long completed() {
+            return responseTime.getTotalCount();
+        }
+
+        void addTo(Stats total) {
+            total.responseTime.add(responseTime);
+            total.serviceTime.add(serviceTime);
+            total.errors.add(errors.sum());
+            total.skipped.add(skipped.sum());
+        }
+    }
+
+    private static final class Report {
+        private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+
+        Report() {
+            for (Operation operation : Operation.values()) {
+                stats.put(operation, new Stats());
+            }
+        }
+
+        Stats total() {
+            Stats total = new Stats();
+            stats.values().forEach(operation -> operation.addTo(total));
+            return total;
+        }
+
+        String format(Settings settings) {
+            double seconds = settings.duration().toMillis() / 1000.0;
+            StringBuilder out = new StringBuilder(String.format(
+                    "Target %.1f req/s for %d s after %d s warm-up, %d users%n",
+                    settings.rate(), settings.duration().toSeconds(), settings.warmup().toSeconds(), settings.users()));
+            out.append(String.format("%-9s %9s %10s %9s %9s %9s %9s %9s %7s %7s%n", "", "requests", "req/s",
+                    "p50 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99", "errors", "skipped"));
+            stats.forEach((operation, operationStats) -> out.append(line(operation.name(), operationStats, seconds)));
+            out.append(line("TOTAL", total(), seconds));
+            out.append("Latencies are from each request's scheduled start; svc p99 is from the actual send.");
+            return out.toString();
+        }
+
+        private static String line(String name, Stats stats, double seconds) {
+            return String.format("%-9s %9d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7d %7d%n", name,
+                    stats.completed(), stats.completed() / seconds,
+                    millis(stats.responseTime, 50), millis(stats.responseTime, 99),
+                    millis(stats.responseTime, 99.9), stats.responseTime.getMaxValue() / 1000.0,
+                    millis(stats.serviceTime, 99), stats.errors.sum(), stats.skipped.sum());
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        void writeHistograms(File directory) throws IOException {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create " + directory);
+            }
+            Map<String, Stats> all = new LinkedHashMap<>();
+            stats.forEach((operation, operationStats) -> all.put(operation.name().toLowerCase(), operationStats));
+            all.put("total", total());
+            for (Map.Entry<String, Stats> entry : all.entrySet()) {
+                try (PrintStream out = new PrintStream(new File(directory, entry.getKey() + ".hgrm"))) {
+                    // Values in milliseconds, like the table.
+                    entry.getValue().responseTime.outputPercentileDistribution(out, 1000.0);
+                }
+            }
+        }
+    }
+}
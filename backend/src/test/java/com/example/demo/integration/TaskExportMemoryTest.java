@@ -0,0 +1,122 @@
+package com.example.demo.integration;
+
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.TaskExporter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exports a million tasks and checks that the heap retained while the export runs stays flat.
+ * The database lives in a file with a small page cache, so the rows themselves are not on the
+ * heap; holding the million exported tasks in memory would take well over 100 MB. It takes about
+ * a minute, so it runs on demand with:
+ * <pre>mvn test -Dtest=TaskExportMemoryTest -Dbenchmarks=true</pre>
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@DirtiesContext
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:file:./target/h2/task-export;LAZY_QUERY_EXECUTION=1;CACHE_SIZE=8192",
+    "spring.datasource.driverClassName=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=password",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.show-sql=false",
+    "tasks.search.rebuild-on-startup=false",
+    "jwt.secret=testSecretKeyForTesting",
+    "jwt.expiration=3600000"
+})
+public class TaskExportMemoryTest {
+
+    private static final int TASKS = 1_000_000;
+    private static final int SAMPLES = 10;
+    private static final long MAX_GROWTH_BYTES = 32L * 1024 * 1024;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskExporter taskExporter;
+
+    @Test
+    void testExport_HeapStaysFlatForAMillionTasks() throws Exception {
+        User user = new User();
+        user.setEmail("export@example.com");
+        user.setFullName("Export User");
+        user.setPassword("password");
+        user = userRepository.save(user);
+        jdbcTemplate.update("insert into task (id, title, description, completed, created_at, user_id)"
+                + " select x, concat('Task ', x), concat('Description for task number ', x), mod(x, 3) = 0,"
+                + " dateadd(second, x, timestamp '2024-01-01 00:00:00'), ? from system_range(1, ?)",
+                user.getId(), TASKS);
+
+        HeapSamplingStream out = new HeapSamplingStream(TASKS / SAMPLES);
+        taskExporter.export(user.getId(), TaskExporter.Format.NDJSON, out);
+
+        assertEquals(TASKS, out.lines);
+        assertTrue(out.samples >= SAMPLES - 1);
+        long growth = out.maxRetained - out.baseline;
+        assertTrue(growth < MAX_GROWTH_BYTES, "Retained heap grew by " + growth / 1024 + " KB during the export");
+    }
+
+    // Counts exported lines and, every sampleEvery lines, records the heap still in use after a full GC.
+    private static class HeapSamplingStream extends OutputStream {
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final long sampleEvery;
+        private long lines;
+        private long nextSample;
+        private long baseline = -1;
+        private long maxRetained;
+        private int samples;
+
+        HeapSamplingStream(long sampleEvery) {
+            this.sampleEvery = sampleEvery;
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+                if (lines >= nextSample) {
+                    sample();
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(bytes[i]);
+            }
+        }
+
+        private void sample() {
+            System.gc();
+            long retained = memory.getHeapMemoryUsage().getUsed();
+            if (baseline < 0) {
+                baseline = retained;
+            } else {
+                samples++;
+            }
+            maxRetained = Math.max(maxRetained, retained);
+            nextSample = lines + sampleEvery;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.demo.integration;
+
+import com.example.demo.service.TaskPartitionMigrator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the partition migration against a real PostgreSQL, which the migrator needs; skipped
+ * where Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class TaskPartitionMigrationIntegrationTest {
+
+    private static final int TASKS = 12;
+    private static final int BATCH_SIZE = 4;
+    private static final long DELETED_ID = 10;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("drop table if exists task, task_partitioned, task_unpartitioned, app_user cascade");
+        jdbcTemplate.execute("drop function if exists task_partition_sync()");
+        // The schema Hibernate generates for User and Task, reduced to what the migration touches.
+        jdbcTemplate.execute("create table app_user (id bigint not null, email varchar(255), primary key (id))");
+        jdbcTemplate.execute("create table task (id bigint not null, completed boolean not null,"
+                + " completed_at timestamp(6), created_at timestamp(6), description varchar(255), title varchar(255),"
+                + " user_id bigint not null, primary key (id))");
+        jdbcTemplate.execute("alter table task add constraint fk_task_user foreign key (user_id) references app_user");
+        jdbcTemplate.execute("create index idx_task_user_created on task (user_id, created_at desc, id desc)");
+        jdbcTemplate.update("insert into app_user (id, email) values (1, 'user@example.com')");
+        jdbcTemplate.update("insert into task (id, title, completed, created_at, user_id)"
+                + " select n, 'Task ' || n, false, localtimestamp, 1 from generate_series(1, ?) n", TASKS);
+    }
+
+    @Test
+    void testMigrate_RowDeletedDuringCopyStaysDeleted() throws Exception {
+        // Pauses between batches leave time to delete a row of the third batch before it is copied.
+        TaskPartitionMigrator migrator = new TaskPartitionMigrator(jdbcTemplate,
+                new DataSourceTransactionManager(dataSource), true, 4, BATCH_SIZE, 500);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Connection deleting = dataSource.getConnection()) {
+            Future<Boolean> migration = executor.submit(migrator::migrate);
+            awaitTrigger(migration);
+
+            deleting.setAutoCommit(false);
+            try (Statement statement = deleting.createStatement()) {
+                assertEquals(1, statement.executeUpdate("delete from task where id = " + DELETED_ID));
+            }
+            // The delete commits only once the migration waits for it: the batch that reached the
+            // row earlier, or without share locks the swap at the end.
+            awaitLockWait(migration);
+            deleting.commit();
+
+            assertTrue(migration.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from pg_partitioned_table where partrelid = 'task'::regclass", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from task where id = ?", Integer.class,
+                DELETED_ID));
+        assertEquals(TASKS - 1, jdbcTemplate.queryForObject("select count(*) from task", Integer.class));
+    }
+
+    private void awaitTrigger(Future<Boolean> migration) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (jdbcTemplate.queryForObject("select count(*) from pg_trigger where tgname = 'task_partition_sync'",
+                Integer.class) == 0) {
+            assertFalse(migration.isDone(), "migration ended before syncing writes");
+            assertTrue(System.nanoTime() < deadline, "sync trigger never installed");
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitLockWait(Future<Boolean> migration) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!migration.isDone() && jdbcTemplate.queryForObject("select count(*) from pg_stat_activity"
+                + " where datname = current_database() and wait_event_type = 'Lock'", Integer.class) == 0) {
+            assertTrue(System.nanoTime() < deadline, "migration never waited for the delete");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo.integration;
+
+import com.example.demo.TodoAppApplication;
+import com.example.demo.config.AuthenticatedUser;
+import com.example.demo.dto.CreateTaskDTO;
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.TaskService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the same load against the app in platform-thread and virtual-thread mode and prints
+ * throughput and latency for each. Tomcat's worker pool is kept small relative to the number
+ * of concurrent clients so the difference in how blocked requests are handled shows up. Run on
+ * demand with:
+ * <pre>mvn test -Dtest=ThreadingModeLoadBenchmark -Dbenchmarks=true</pre>
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class ThreadingModeLoadBenchmark {
+
+    private static final String SECRET =
+            "YmVuY2htYXJrLXNlY3JldC10aGF0LWlzLWNvbWZvcnRhYmx5LWxvbmdlci10aGFuLXNpeHR5LWZvdXItYnl0ZXMhIQ==";
+    private static final int CLIENTS = 256;
+    private static final int TASKS = 50;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASURED = Duration.ofSeconds(20);
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.println(platform);
+        System.out.println(virtual);
+        assertEquals(0, platform.errors());
+        assertEquals(0, virtual.errors());
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TodoAppApplication.class)
+                // Command-line arguments, so application.properties cannot override them.
+                .run(
+                        "--server.port=0",
+                        "--management.server.port=0",
+                        "--server.tomcat.threads.max=32",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:bench-" + mode,
+                        "--spring.datasource.driverClassName=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.hikari.maximum-pool-size=8",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--jwt.secret=" + SECRET)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String token = seed(context);
+            // status=all is not cached, so every request reaches the database.
+            URI uri = URI.create("http://localhost:" + port + "/api/tasks?status=all&size=20");
+
+            load(uri, token, WARMUP, new ArrayList<>(), new LongAdder());
+            List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+            LongAdder errors = new LongAdder();
+            load(uri, token, MEASURED, latencies, errors);
+            return Result.of(mode, latencies, errors.sum());
+        }
+    }
+
+    private static String seed(ConfigurableApplicationContext context) {
+        User user = new User();
+        user.setEmail("bench@example.com");
+        user.setFullName("Bench User");
+        user.setPassword("unused");
+        user = context.getBean(UserRepository.class).save(user);
+
+        TaskService taskService = context.getBean(TaskService.class);
+        for (int i = 0; i < TASKS; i++) {
+            CreateTaskDTO createTaskDTO = new CreateTaskDTO();
+            createTaskDTO.setTitle("Task " + i);
+            taskService.createTask(user.getId(), createTaskDTO);
+        }
+
+        return Jwts.builder()
+                .setSubject(user.getEmail())
+                .claim(AuthenticatedUser.CLAIM_USER_ID, user.getId())
+                .claim(AuthenticatedUser.CLAIM_AUTHORITIES, "USER")
+                .setExpiration(new Date(System.currentTimeMillis() + 3600000))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+    }
+
+    private static void load(URI uri, String token, Duration duration, List<Long> latencies, LongAdder errors)
+            throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", "Bearer " + token).GET().build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                        latencies.add(System.nanoTime() - start);
+                    }
+                });
+            }
+        }
+    }
+
+    private record Result(String mode, int requests, double perSecond, double p50Millis, double p99Millis, long errors) {
+
+        static Result of(String mode, List<Long> latencies, long errors) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            double perSecond = sorted.size() / (double) MEASURED.toSeconds();
+            return new Result(mode, sorted.size(), perSecond,
+                    percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6, errors);
+        }
+
+        private static long percentile(List<Long> sorted, double quantile) {
+            return sorted.isEmpty() ? 0 : sorted.get((int) Math.min(sorted.size() - 1, sorted.size() * quantile));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-8s %8d req %10.1f req/s   p50 %7.2f ms   p99 %7.2f ms   errors %d",
+                    mode, requests, perSecond, p50Millis, p99Millis, errors);
+        }
+    }
+}
@@ -1,26 +1,39 @@
 package com.example.demo.integration;
 
+import com.example.demo.config.AuthenticatedUser;
+import com.example.demo.config.JwtAuthenticationToken;
+import com.example.demo.config.SqlStatementCounter;
 import com.example.demo.dto.CreateTaskDTO;
 import com.example.demo.model.User;
 import com.example.demo.repository.TaskRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.service.CachingUserDetailsService;
+import com.example.demo.service.TaskExporter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -37,7 +50,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
     "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
     "spring.jpa.hibernate.ddl-auto=create-drop",
     "jwt.secret=testSecretKeyForTesting",
-    "jwt.expiration=3600000"
+    "jwt.expiration=3600000",
+    "auth.password.hash-budget=0",
+    "auth.password.min-strength=4",
+    "db.statement-budget.mode=fail"
 })
 @Transactional
 public class TodoAppIntegrationTest {
@@ -51,9 +67,18 @@ public class TodoAppIntegrationTest {
     @Autowired
     private TaskRepository taskRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskExporter taskExporter;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CachingUserDetailsService userDetailsService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -91,6 +116,35 @@ public class TodoAppIntegrationTest {
         assertTrue(userRepository.findByEmail("newuser@example.com").isPresent());
     }
 
+    @Test
+    void testRegistrationIgnoresTaskVersion() throws Exception {
+        mockMvc.perform(post("/api/auth/register")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"versioned@example.com\",\"fullName\":\"Versioned\","
+                        + "\"password\":\"password\",\"taskVersion\":99}"))
+                .andExpect(status().isOk());
+
+        User registered = userRepository.findByEmail("versioned@example.com").orElseThrow();
+        assertEquals(0L, userRepository.findTaskVersion(registered.getId()).orElseThrow());
+    }
+
+    @Test
+    void testStaleUserSavesKeepTaskVersion() {
+        userRepository.incrementTaskVersion(testUser.getId());
+
+        User stale = new User();
+        stale.setId(testUser.getId());
+        stale.setEmail(testUser.getEmail());
+        stale.setFullName("Renamed");
+        stale.setPassword(testUser.getPassword());
+        userRepository.save(stale);
+        userDetailsService.updatePassword(userDetailsService.loadUserByUsername(testUser.getEmail()),
+                passwordEncoder.encode("rehashed"));
+
+        assertEquals(1L, userRepository.findTaskVersion(testUser.getId()).orElseThrow());
+    }
+
     @Test
     void testUserRegistrationWithDuplicateEmail() throws Exception {
         User duplicateUser = new User();
@@ -107,7 +161,6 @@ public class TodoAppIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "integration@example.com")
     void testTaskCreationFlow() throws Exception {
         CreateTaskDTO createTaskDTO = new CreateTaskDTO();
         createTaskDTO.setTitle("Integration Test Task");
@@ -115,6 +168,7 @@ public class TodoAppIntegrationTest {
 
         mockMvc.perform(post("/api/tasks")
                 .with(csrf())
+                .with(asTestUser())
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(createTaskDTO)))
                 .andExpect(status().isOk())
@@ -126,7 +180,6 @@ public class TodoAppIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "integration@example.com")
     void testGetTasksFlow() throws Exception {
         CreateTaskDTO task1 = new CreateTaskDTO();
         task1.setTitle("Task 1");
@@ -138,17 +191,19 @@ public class TodoAppIntegrationTest {
 
         mockMvc.perform(post("/api/tasks")
                 .with(csrf())
+                .with(asTestUser())
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(task1)))
                 .andExpect(status().isOk());
 
         mockMvc.perform(post("/api/tasks")
                 .with(csrf())
+                .with(asTestUser())
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(task2)))
                 .andExpect(status().isOk());
 
-        mockMvc.perform(get("/api/tasks"))
+        mockMvc.perform(get("/api/tasks").with(asTestUser()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].title").exists())
@@ -156,7 +211,6 @@ public class TodoAppIntegrationTest {
     }
 
     @Test
-    @WithMockUser(username = "integration@example.com")
     void testCompleteTaskFlow() throws Exception {
         CreateTaskDTO createTaskDTO = new CreateTaskDTO();
         createTaskDTO.setTitle("Task to Complete");
@@ -164,6 +218,7 @@ public class TodoAppIntegrationTest {
 
         String response = mockMvc.perform(post("/api/tasks")
                 .with(csrf())
+                .with(asTestUser())
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(createTaskDTO)))
                 .andExpect(status().isOk())
@@ -174,12 +229,166 @@ public class TodoAppIntegrationTest {
         Long taskId = objectMapper.readTree(response).get("id").asLong();
 
         mockMvc.perform(put("/api/tasks/" + taskId + "/complete")
-                .with(csrf()))
-                .andExpect(status().isOk());
+                .with(csrf())
+                .with(asTestUser()))
+                .andExpect(status().isNoContent());
 
-        mockMvc.perform(get("/api/tasks"))
+        mockMvc.perform(get("/api/tasks").with(asTestUser()))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(0));
     }
 
+    @Test
+    void testBatchFlow() throws Exception {
+        String batch = "{\"create\":[{\"title\":\"Batch 1\"},{\"title\":\"Batch 2\"},{\"title\":\"Batch 3\"}]}";
+
+        String response = mockMvc.perform(post("/api/tasks/batch")
+                .with(csrf())
+                .with(asTestUser())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created.length()").value(3))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        Long firstId = objectMapper.readTree(response).get("created").get(0).get("id").asLong();
+
+        mockMvc.perform(post("/api/tasks/batch")
+                .with(csrf())
+                .with(asTestUser())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"complete\":[" + firstId + ", 999999]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed[0].status").value("completed"))
+                .andExpect(jsonPath("$.completed[1].status").value("not_found"));
+
+        mockMvc.perform(get("/api/tasks").with(asTestUser()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void testConditionalGetFlow() throws Exception {
+        CreateTaskDTO createTaskDTO = new CreateTaskDTO();
+        createTaskDTO.setTitle("Polled Task");
+
+        mockMvc.perform(post("/api/tasks")
+                .with(csrf())
+                .with(asTestUser())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createTaskDTO)))
+                .andExpect(status().isOk());
+
+        String etag = mockMvc.perform(get("/api/tasks").with(asTestUser()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"" + testUser.getId() + "-1-")))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        try (SqlStatementCounter.Scope statements = SqlStatementCounter.open()) {
+            mockMvc.perform(get("/api/tasks").with(asTestUser()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified());
+            assertEquals(0, statements.getCount());
+        }
+    }
+
+    @Test
+    void testCompleteTaskStatementCount() throws Exception {
+        CreateTaskDTO createTaskDTO = new CreateTaskDTO();
+        createTaskDTO.setTitle("Counted Task");
+
+        String response = mockMvc.perform(post("/api/tasks")
+                .with(csrf())
+                .with(asTestUser())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createTaskDTO)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        Long taskId = objectMapper.readTree(response).get("id").asLong();
+
+        // The task UPDATE, the task version bump and read-back, and the stats counters; the
+        // task's owner is never loaded.
+        try (SqlStatementCounter.Scope statements = SqlStatementCounter.open()) {
+            mockMvc.perform(put("/api/tasks/" + taskId + "/complete")
+                    .with(csrf())
+                    .with(asTestUser()))
+                    .andExpect(status().isNoContent());
+            assertEquals(4, statements.getCount());
+            assertTrue(statements.getExecutions().values().stream().allMatch(times -> times == 1));
+        }
+    }
+
+    @Test
+    void testStatsCountTasksCreatedToday() throws Exception {
+        CreateTaskDTO createTaskDTO = new CreateTaskDTO();
+        createTaskDTO.setTitle("Counted Today");
+
+        mockMvc.perform(post("/api/tasks")
+                .with(csrf())
+                .with(asTestUser())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createTaskDTO)))
+                .andExpect(status().isOk());
+        // The first read builds the counters from the tasks, outside its statement budget.
+        try (SqlStatementCounter.Scope statements = SqlStatementCounter.open()) {
+            mockMvc.perform(get("/api/tasks/stats").param("days", "1").with(asTestUser()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.open").value(1))
+                    .andExpect(jsonPath("$.createdPerDay[0].day").value(LocalDate.now().toString()))
+                    .andExpect(jsonPath("$.createdPerDay[0].count").value(1));
+            assertEquals(3, statements.getCount());
+        }
+
+        // Later tasks are counted as they are created.
+        mockMvc.perform(post("/api/tasks")
+                .with(csrf())
+                .with(asTestUser())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createTaskDTO)))
+                .andExpect(status().isOk());
+        // Read past the persistence context, which still holds the row as the first read loaded it.
+        assertEquals(2L, jdbcTemplate.queryForObject(
+                "select created_count from task_daily_count where user_id = ?", Long.class, testUser.getId()));
+    }
+
+    @Test
+    void testExportWithinStatementBudget() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/tasks/export").param("format", "csv").with(asTestUser()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(startsWith("id,title,description,completed,createdAt\r\n")));
+        assertEquals(0, taskExporter.getActiveCount());
+    }
+
+    @Test
+    void testFirstSearchWithinStatementBudget() throws Exception {
+        CreateTaskDTO createTaskDTO = new CreateTaskDTO();
+        createTaskDTO.setTitle("Buy oat milk");
+        mockMvc.perform(post("/api/tasks")
+                .with(csrf())
+                .with(asTestUser())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createTaskDTO)))
+                .andExpect(status().isOk());
+
+        // The user is new, so this search also loads their index.
+        mockMvc.perform(get("/api/tasks/search").param("q", "oat").with(asTestUser()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Buy oat milk"));
+    }
+
+    private RequestPostProcessor asTestUser() {
+        AuthenticatedUser principal = new AuthenticatedUser(testUser.getId(), testUser.getEmail(), null,
+                AuthorityUtils.createAuthorityList("USER"));
+        return authentication(new JwtAuthenticationToken(principal));
+    }
 }
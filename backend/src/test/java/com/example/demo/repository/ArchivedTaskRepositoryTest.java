@@ -0,0 +1,104 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.model.ArchivedTask;
+import com.example.demo.model.Task;
+import com.example.demo.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class ArchivedTaskRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setEmail("test@example.com");
+        testUser.setFullName("Test User");
+        testUser.setPassword("password123");
+        testUser = entityManager.persistAndFlush(testUser);
+    }
+
+    @Test
+    void testCompleteTask_RecordsCompletionTime() {
+        Task task = persistTask("Dated", LocalDateTime.now());
+
+        taskRepository.completeTask(task.getId(), testUser.getId());
+
+        entityManager.clear();
+        assertNotNull(entityManager.find(Task.class, task.getId()).getCompletedAt());
+        assertEquals(List.of(task.getId()),
+                taskRepository.findArchivableIds(LocalDateTime.now().plusMinutes(1), Limit.of(10)));
+        assertEquals(List.of(), taskRepository.findArchivableIds(LocalDateTime.now().minusDays(1), Limit.of(10)));
+    }
+
+    @Test
+    void testCopyFromTasks_MovesTaskIntoArchive() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 9, 0);
+        Task task = persistTask("Old", createdAt);
+        Task open = persistTask("Open", createdAt.plusHours(1));
+        taskRepository.completeTask(task.getId(), testUser.getId());
+
+        assertEquals(1, archivedTaskRepository.copyFromTasks(List.of(task.getId())));
+        taskRepository.deleteAllByIdInBatch(List.of(task.getId()));
+
+        entityManager.clear();
+        assertNull(entityManager.find(Task.class, task.getId()));
+        assertNotNull(entityManager.find(Task.class, open.getId()));
+        ArchivedTask archived = entityManager.find(ArchivedTask.class, task.getId());
+        assertEquals(testUser.getId(), archived.getUserId());
+        assertEquals("Old", archived.getTitle());
+        assertNotNull(archived.getCompletedAt());
+        assertNotNull(archived.getArchivedAt());
+
+        List<ResponseTaskDTO> page = archivedTaskRepository.findPage(testUser.getId(), Limit.of(10));
+        assertEquals(1, page.size());
+        assertTrue(page.get(0).isCompleted());
+        assertEquals(1, archivedTaskRepository.countByUserId(testUser.getId()));
+        assertEquals(List.of(testUser.getId()), archivedTaskRepository.findUserIds(List.of(task.getId())));
+    }
+
+    @Test
+    void testBackfillCompletedAt_DatesUndatedCompletions() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 9, 0);
+        Task task = persistTask("Legacy", createdAt);
+        task.setCompleted(true);
+        entityManager.persistAndFlush(task);
+
+        List<Long> undated = taskRepository.findUndatedCompletedIds(Limit.of(10));
+        assertEquals(List.of(task.getId()), undated);
+        assertEquals(1, taskRepository.backfillCompletedAt(undated));
+
+        entityManager.clear();
+        assertEquals(createdAt, entityManager.find(Task.class, task.getId()).getCompletedAt());
+        assertEquals(List.of(), taskRepository.findUndatedCompletedIds(Limit.of(10)));
+    }
+
+    private Task persistTask(String title, LocalDateTime createdAt) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setCreatedAt(createdAt);
+        task.setUser(testUser);
+        return entityManager.persistAndFlush(task);
+    }
+}
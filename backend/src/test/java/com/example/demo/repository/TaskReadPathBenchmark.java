@@ -0,0 +1,122 @@
+package com.example.demo.repository;
+
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.model.Task;
+import com.example.demo.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the entity read path that GET /api/tasks used to take (load managed Task entities,
+ * then copy each one into a ResponseTaskDTO) with the constructor-expression projection used
+ * now. Run on demand with:
+ * <pre>mvn test -Dtest=TaskReadPathBenchmark -Dbenchmarks=true</pre>
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class TaskReadPathBenchmark {
+
+    private static final int TASKS = 500;
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 10_000;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("bench@example.com");
+        user.setFullName("Bench User");
+        user.setPassword("password");
+        user = entityManager.persist(user);
+
+        LocalDateTime baseTime = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task();
+            task.setTitle("Task " + i);
+            task.setDescription("Description for task number " + i);
+            task.setCreatedAt(baseTime.plusMinutes(i));
+            task.setUser(user);
+            entityManager.persist(task);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void compareEntityAndProjectionReadPaths() {
+        Long userId = user.getId();
+
+        Result entity = measure("entity + mapping", () -> loadEntities(userId));
+        Result projection = measure("dto projection", () -> taskRepository.findPageByCompleted(userId, false, Limit.of(PAGE_SIZE)));
+
+        System.out.println(entity);
+        System.out.println(projection);
+        assertTrue(projection.bytesPerOp() < entity.bytesPerOp(),
+                "projection path should allocate less than the entity path");
+    }
+
+    private List<ResponseTaskDTO> loadEntities(Long userId) {
+        List<Task> tasks = entityManager.getEntityManager()
+                .createQuery("select t from Task t where t.user.id = :userId and t.completed = false"
+                        + " order by t.createdAt desc, t.id desc", Task.class)
+                .setParameter("userId", userId)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList();
+        return tasks.stream().map(task -> {
+            ResponseTaskDTO dto = new ResponseTaskDTO();
+            dto.setId(task.getId());
+            dto.setTitle(task.getTitle());
+            dto.setDescription(task.getDescription());
+            dto.setCompleted(task.isCompleted());
+            dto.setCreatedAt(task.getCreatedAt());
+            return dto;
+        }).collect(Collectors.toList());
+    }
+
+    private Result measure(String name, Supplier<List<ResponseTaskDTO>> readPath) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            assertEquals(PAGE_SIZE, readPath.get().size());
+            entityManager.clear();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            readPath.get();
+            // Each request gets a fresh persistence context in production.
+            entityManager.clear();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+        return new Result(name, elapsed / MEASURED_ITERATIONS, allocated / MEASURED_ITERATIONS);
+    }
+
+    private record Result(String name, long nanosPerOp, long bytesPerOp) {
+
+        @Override
+        public String toString() {
+            return String.format("%-18s %10.1f us/op %12d B/op", name, nanosPerOp / 1000.0, bytesPerOp);
+        }
+    }
+}
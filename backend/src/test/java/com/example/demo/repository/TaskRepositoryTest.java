@@ -1,5 +1,6 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.ResponseTaskDTO;
 import com.example.demo.model.Task;
 import com.example.demo.model.User;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,8 +8,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -159,6 +162,107 @@ public class TaskRepositoryTest {
         anotherUserTasks.forEach(task -> assertEquals(anotherUser.getId(), task.getUser().getId()));
     }
 
+    @Test
+    void testKeysetPagination_WalksAllOpenTasksWithoutGapsOrDuplicates() {
+        LocalDateTime baseTime = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+        for (int i = 0; i < 7; i++) {
+            Task task = new Task();
+            task.setTitle("Task " + i);
+            task.setCompleted(i == 3);
+            // Pairs of tasks share a timestamp so the id tie-breaker is exercised.
+            task.setCreatedAt(baseTime.plusMinutes(i / 2));
+            task.setUser(testUser);
+            entityManager.persistAndFlush(task);
+        }
+
+        List<ResponseTaskDTO> firstPage = taskRepository.findPageByCompleted(testUser.getId(), false, Limit.of(4));
+        ResponseTaskDTO last = firstPage.get(firstPage.size() - 1);
+        List<ResponseTaskDTO> secondPage = taskRepository.findPageByCompletedAfter(
+                testUser.getId(), false, last.getCreatedAt(), last.getId(), Limit.of(4));
+
+        assertEquals(4, firstPage.size());
+        assertEquals(2, secondPage.size());
+
+        List<ResponseTaskDTO> all = new ArrayList<>(firstPage);
+        all.addAll(secondPage);
+        for (int i = 0; i < all.size() - 1; i++) {
+            ResponseTaskDTO current = all.get(i);
+            ResponseTaskDTO next = all.get(i + 1);
+            assertTrue(current.getCreatedAt().isAfter(next.getCreatedAt())
+                    || (current.getCreatedAt().equals(next.getCreatedAt()) && current.getId() > next.getId()));
+        }
+        all.forEach(task -> assertFalse(task.isCompleted()));
+    }
+
+    @Test
+    void testKeysetPagination_AllStatusesAndOtherUsersExcluded() {
+        LocalDateTime baseTime = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+        for (int i = 0; i < 3; i++) {
+            Task task = new Task();
+            task.setTitle("Task " + i);
+            task.setCompleted(i == 0);
+            task.setCreatedAt(baseTime.plusMinutes(i));
+            task.setUser(testUser);
+            entityManager.persistAndFlush(task);
+        }
+        Task foreign = new Task();
+        foreign.setTitle("Foreign Task");
+        foreign.setCreatedAt(baseTime.plusMinutes(10));
+        foreign.setUser(anotherUser);
+        foreign = entityManager.persistAndFlush(foreign);
+
+        List<ResponseTaskDTO> firstPage = taskRepository.findPage(testUser.getId(), Limit.of(2));
+        ResponseTaskDTO last = firstPage.get(1);
+        List<ResponseTaskDTO> secondPage = taskRepository.findPageAfter(
+                testUser.getId(), last.getCreatedAt(), last.getId(), Limit.of(2));
+
+        assertEquals(2, firstPage.size());
+        assertEquals(1, secondPage.size());
+        assertTrue(secondPage.get(0).isCompleted());
+        Long foreignId = foreign.getId();
+        firstPage.forEach(task -> assertNotEquals(foreignId, task.getId()));
+    }
+
+    @Test
+    void testCompleteTask_OnlyOwnerCanComplete() {
+        Task task = new Task();
+        task.setTitle("Owned Task");
+        task.setCreatedAt(LocalDateTime.now());
+        task.setUser(testUser);
+        task = entityManager.persistAndFlush(task);
+
+        assertEquals(0, taskRepository.completeTask(task.getId(), anotherUser.getId()));
+        assertEquals(1, taskRepository.completeTask(task.getId(), testUser.getId()));
+        assertEquals(0, taskRepository.completeTask(-1L, testUser.getId()));
+
+        entityManager.clear();
+        assertTrue(entityManager.find(Task.class, task.getId()).isCompleted());
+    }
+
+    @Test
+    void testCompleteTasks_SkipsForeignTasks() {
+        Task own = new Task();
+        own.setTitle("Own Task");
+        own.setCreatedAt(LocalDateTime.now());
+        own.setUser(testUser);
+        own = entityManager.persistAndFlush(own);
+
+        Task foreign = new Task();
+        foreign.setTitle("Foreign Task");
+        foreign.setCreatedAt(LocalDateTime.now());
+        foreign.setUser(anotherUser);
+        foreign = entityManager.persistAndFlush(foreign);
+
+        int updated = taskRepository.completeTasks(List.of(own.getId(), foreign.getId()), testUser.getId());
+
+        assertEquals(1, updated);
+        entityManager.clear();
+        assertTrue(entityManager.find(Task.class, own.getId()).isCompleted());
+        assertFalse(entityManager.find(Task.class, foreign.getId()).isCompleted());
+    }
+
     @Test
     void testSaveTask() {
         Task task = new Task();
@@ -127,4 +127,17 @@ public class UserRepositoryTest {
         Optional<User> deletedUser = userRepository.findById(userId);
         assertFalse(deletedUser.isPresent());
     }
+
+    @Test
+    void testIncrementTaskVersion() {
+        User saved = entityManager.persistAndFlush(testUser);
+        assertEquals(Optional.of(0L), userRepository.findTaskVersion(saved.getId()));
+
+        assertEquals(1, userRepository.incrementTaskVersion(saved.getId()));
+        assertEquals(1, userRepository.incrementTaskVersion(saved.getId()));
+
+        assertEquals(Optional.of(2L), userRepository.findTaskVersion(saved.getId()));
+        assertEquals(0, userRepository.incrementTaskVersion(-1L));
+        assertFalse(userRepository.findTaskVersion(-1L).isPresent());
+    }
 }
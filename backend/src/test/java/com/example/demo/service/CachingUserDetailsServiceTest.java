@@ -0,0 +1,84 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingUserDetailsServiceTest {
+
+    @Mock
+    private CustomUserDetailsService delegate;
+
+    private CachingUserDetailsService cachingUserDetailsService;
+
+    private UserDetails testUser;
+
+    @BeforeEach
+    void setUp() {
+        cachingUserDetailsService = new CachingUserDetailsService(delegate, 100, Duration.ofMinutes(5));
+        testUser = User.withUsername("test@example.com").password("encodedPassword").authorities("USER").build();
+    }
+
+    @Test
+    void testLoadUserByUsername_SecondLookupIsCached() {
+        when(delegate.loadUserByUsername("test@example.com")).thenReturn(testUser);
+
+        cachingUserDetailsService.loadUserByUsername("test@example.com");
+        UserDetails userDetails = cachingUserDetailsService.loadUserByUsername("test@example.com");
+
+        assertSame(testUser, userDetails);
+        verify(delegate, times(1)).loadUserByUsername("test@example.com");
+        assertEquals(0.5, cachingUserDetailsService.getHitRatio());
+        assertEquals(1, cachingUserDetailsService.getLoadCount());
+    }
+
+    @Test
+    void testLoadUserByUsername_UnknownUserIsNotCached() {
+        when(delegate.loadUserByUsername("nonexistent@example.com"))
+                .thenThrow(new UsernameNotFoundException("User not found: nonexistent@example.com"));
+
+        assertThrows(UsernameNotFoundException.class,
+                () -> cachingUserDetailsService.loadUserByUsername("nonexistent@example.com"));
+        assertThrows(UsernameNotFoundException.class,
+                () -> cachingUserDetailsService.loadUserByUsername("nonexistent@example.com"));
+
+        verify(delegate, times(2)).loadUserByUsername("nonexistent@example.com");
+        assertEquals(0, cachingUserDetailsService.getCache().size());
+    }
+
+    @Test
+    void testCredentialsChanged_InvalidatesEntry() {
+        when(delegate.loadUserByUsername("test@example.com")).thenReturn(testUser);
+
+        cachingUserDetailsService.loadUserByUsername("test@example.com");
+        cachingUserDetailsService.onCredentialsChanged(new UserCredentialsChangedEvent("test@example.com"));
+        cachingUserDetailsService.loadUserByUsername("test@example.com");
+
+        verify(delegate, times(2)).loadUserByUsername("test@example.com");
+    }
+
+    @Test
+    void testUpdatePassword_DelegatesAndInvalidatesEntry() {
+        UserDetails rehashed = User.withUsername("test@example.com").password("{bcrypt}newHash").authorities("USER").build();
+        when(delegate.loadUserByUsername("test@example.com")).thenReturn(testUser, rehashed);
+        when(delegate.updatePassword(testUser, "{bcrypt}newHash")).thenReturn(rehashed);
+
+        cachingUserDetailsService.loadUserByUsername("test@example.com");
+        UserDetails updated = cachingUserDetailsService.updatePassword(testUser, "{bcrypt}newHash");
+
+        assertSame(rehashed, updated);
+        assertEquals("{bcrypt}newHash", cachingUserDetailsService.loadUserByUsername("test@example.com").getPassword());
+        verify(delegate, times(2)).loadUserByUsername("test@example.com");
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.TaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CompletionWriteBehindQueueTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private TaskVersionStore taskVersionStore;
+
+    @Mock
+    private TaskStatsService taskStatsService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path journalDir;
+
+    private CompletionWriteBehindQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    void testEnqueue_VisibleAsPendingAndJournaled() throws Exception {
+        queue = newQueue();
+
+        queue.enqueue(1L, 10L);
+        queue.enqueue(1L, 11L);
+
+        assertEquals(Set.of(10L, 11L), queue.pendingFor(1L));
+        assertEquals(Set.of(), queue.pendingFor(2L));
+        assertTrue(queue.stampFor(1L) > 0);
+        assertEquals(2, queue.getQueueDepth());
+        assertEquals(List.of("1,10", "1,11"), Files.readAllLines(journal()));
+    }
+
+    @Test
+    void testEnqueue_ConcurrentCallersAreAllJournaledOnce() throws Exception {
+        int threads = 8;
+        int perThread = 20;
+        // Large enough that no flush compacts the journal meanwhile.
+        queue = new CompletionWriteBehindQueue(taskRepository, taskVersionStore, taskStatsService, eventPublisher,
+                transactionManager, true, journal().toString(), 60000, threads * perThread + 1);
+
+        try (ExecutorService callers = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                long userId = t + 1;
+                callers.execute(() -> {
+                    for (long taskId = 1; taskId <= perThread; taskId++) {
+                        queue.enqueue(userId, userId * 1000 + taskId);
+                    }
+                });
+            }
+        }
+
+        List<String> lines = Files.readAllLines(journal());
+        assertEquals(threads * perThread, lines.size());
+        assertEquals(threads * perThread, Set.copyOf(lines).size());
+        assertEquals(threads * perThread, queue.getQueueDepth());
+        assertEquals(perThread, queue.pendingFor(3L).size());
+    }
+
+    @Test
+    void testFlush_OneUpdatePerUserThenClearsJournal() throws Exception {
+        when(taskRepository.completeTasks(Set.of(10L, 11L), 1L)).thenReturn(2);
+        when(taskRepository.completeTasks(Set.of(20L), 2L)).thenReturn(1);
+        when(taskVersionStore.increment(1L)).thenReturn(5L);
+        when(taskVersionStore.increment(2L)).thenReturn(3L);
+        queue = newQueue();
+        queue.enqueue(1L, 10L);
+        queue.enqueue(2L, 20L);
+        queue.enqueue(1L, 11L);
+
+        queue.flush();
+
+        verify(taskRepository, times(2)).completeTasks(anyCollection(), anyLong());
+        verify(eventPublisher).publishEvent(new TaskChangedEvent(1L, 5L, List.of(), List.of(10L, 11L)));
+        verify(eventPublisher).publishEvent(new TaskChangedEvent(2L, 3L, List.of(), List.of(20L)));
+        verify(taskStatsService).record(1L, List.of(), 2);
+        verify(taskStatsService).record(2L, List.of(), 1);
+        assertEquals(Set.of(), queue.pendingFor(1L));
+        assertEquals(0L, queue.stampFor(1L));
+        assertEquals(0, queue.getQueueDepth());
+        assertEquals(1, queue.getFlushCount());
+        assertEquals(0, Files.size(journal()));
+    }
+
+    @Test
+    void testFlush_FailureKeepsCompletionsQueued() throws Exception {
+        when(taskRepository.completeTasks(Set.of(10L), 1L)).thenThrow(new QueryTimeoutException("timeout"));
+        queue = newQueue();
+        queue.enqueue(1L, 10L);
+
+        assertThrows(QueryTimeoutException.class, queue::flush);
+
+        assertEquals(Set.of(10L), queue.pendingFor(1L));
+        assertEquals(List.of("1,10"), Files.readAllLines(journal()));
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testFlush_CompletionQueuedMeanwhileStaysJournaled() throws Exception {
+        queue = newQueue();
+        when(taskRepository.completeTasks(Set.of(10L), 1L)).thenAnswer(invocation -> {
+            assertEquals(Set.of(10L), queue.pendingFor(1L));
+            queue.enqueue(1L, 11L);
+            assertEquals(Set.of(10L, 11L), queue.pendingFor(1L));
+            return 1;
+        });
+        queue.enqueue(1L, 10L);
+
+        queue.flush();
+
+        assertEquals(Set.of(11L), queue.pendingFor(1L));
+        assertTrue(queue.stampFor(1L) > 0);
+        assertEquals(List.of("1,11"), Files.readAllLines(journal()));
+    }
+
+    @Test
+    void testStartup_ReplaysJournalAndSkipsTornEntry() throws Exception {
+        Files.writeString(journal(), "1,10\n2,20\n1,1");
+
+        queue = newQueue();
+
+        assertEquals(Set.of(10L), queue.pendingFor(1L));
+        assertEquals(Set.of(20L), queue.pendingFor(2L));
+    }
+
+    @Test
+    void testDisabled_NoJournalAndNothingPending() {
+        queue = new CompletionWriteBehindQueue(taskRepository, taskVersionStore, taskStatsService, eventPublisher,
+                transactionManager, false, journal().toString(), 60000, 100);
+
+        assertFalse(Files.exists(journal()));
+        assertEquals(Set.of(), queue.pendingFor(1L));
+        assertThrows(IllegalStateException.class, () -> queue.enqueue(1L, 10L));
+    }
+
+    private CompletionWriteBehindQueue newQueue() {
+        return new CompletionWriteBehindQueue(taskRepository, taskVersionStore, taskStatsService, eventPublisher,
+                transactionManager, true, journal().toString(), 60000, 100);
+    }
+
+    private Path journal() {
+        return journalDir.resolve("completions.log");
+    }
+}
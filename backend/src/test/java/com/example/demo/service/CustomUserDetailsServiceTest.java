@@ -1,5 +1,6 @@
 package com.example.demo.service;
 
+import com.example.demo.config.AuthenticatedUser;
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,7 +15,10 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -109,4 +113,29 @@ public class CustomUserDetailsServiceTest {
 
         assertTrue(exception.getMessage().contains("User not found: " + email));
     }
+
+    @Test
+    void testUpdatePassword_StoresNewHash() {
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(userRepository.updatePassword("test@example.com", "{bcrypt}newHash")).thenReturn(1);
+
+        UserDetails current = customUserDetailsService.loadUserByUsername("test@example.com");
+        UserDetails updated = customUserDetailsService.updatePassword(current, "{bcrypt}newHash");
+
+        assertEquals("{bcrypt}newHash", updated.getPassword());
+        assertEquals(1L, ((AuthenticatedUser) updated).getId());
+        verify(userRepository).updatePassword("test@example.com", "{bcrypt}newHash");
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void testUpdatePassword_UserGone() {
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(userRepository.updatePassword("test@example.com", "{bcrypt}newHash")).thenReturn(0);
+
+        UserDetails current = customUserDetailsService.loadUserByUsername("test@example.com");
+
+        assertThrows(UsernameNotFoundException.class,
+                () -> customUserDetailsService.updatePassword(current, "{bcrypt}newHash"));
+    }
 }
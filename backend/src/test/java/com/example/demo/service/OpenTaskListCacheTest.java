@@ -0,0 +1,111 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OpenTaskListCacheTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private TaskVersionStore taskVersionStore;
+
+    private OpenTaskListCache openTaskListCache;
+
+    private List<ResponseTaskDTO> tasks;
+
+    @BeforeEach
+    void setUp() {
+        openTaskListCache = new OpenTaskListCache(taskRepository, taskVersionStore, 100, 300000, 5, true);
+        LocalDateTime now = LocalDateTime.now();
+        tasks = List.of(
+                new ResponseTaskDTO(3L, "Task 3", null, false, now),
+                new ResponseTaskDTO(2L, "Task 2", null, false, now.minusMinutes(1)),
+                new ResponseTaskDTO(1L, "Task 1", null, false, now.minusMinutes(2)));
+    }
+
+    @Test
+    void testGet_SameVersionServedFromCache() {
+        when(taskVersionStore.currentVersion(1L)).thenReturn(2L);
+        when(taskRepository.findPageByCompleted(1L, false, Limit.of(6))).thenReturn(tasks);
+
+        openTaskListCache.get(1L, Limit.of(6));
+        List<ResponseTaskDTO> cached = openTaskListCache.get(1L, Limit.of(6));
+
+        assertEquals(tasks, cached);
+        verify(taskRepository, times(1)).findPageByCompleted(1L, false, Limit.of(6));
+    }
+
+    @Test
+    void testGet_NewerVersionReloads() {
+        when(taskVersionStore.currentVersion(1L)).thenReturn(2L, 3L);
+        when(taskRepository.findPageByCompleted(1L, false, Limit.of(6))).thenReturn(tasks, tasks.subList(1, 3));
+
+        openTaskListCache.get(1L, Limit.of(6));
+        List<ResponseTaskDTO> reloaded = openTaskListCache.get(1L, Limit.of(6));
+
+        assertEquals(2, reloaded.size());
+        verify(taskRepository, times(2)).findPageByCompleted(1L, false, Limit.of(6));
+    }
+
+    @Test
+    void testGet_SmallerLimitServedFromLargerSnapshot() {
+        when(taskVersionStore.currentVersion(1L)).thenReturn(2L);
+        when(taskRepository.findPageByCompleted(1L, false, Limit.of(6))).thenReturn(tasks);
+
+        openTaskListCache.get(1L, Limit.of(6));
+        List<ResponseTaskDTO> page = openTaskListCache.get(1L, Limit.of(2));
+
+        assertEquals(List.of(3L, 2L), page.stream().map(ResponseTaskDTO::getId).toList());
+        verify(taskRepository, never()).findPageByCompleted(1L, false, Limit.of(2));
+    }
+
+    @Test
+    void testTaskChanged_InvalidatesSnapshot() {
+        when(taskVersionStore.currentVersion(1L)).thenReturn(2L);
+        when(taskRepository.findPageByCompleted(1L, false, Limit.of(6))).thenReturn(tasks);
+
+        openTaskListCache.get(1L, Limit.of(6));
+        openTaskListCache.onTaskChanged(new TaskChangedEvent(1L, 3L));
+
+        assertEquals(0, openTaskListCache.getCache().size());
+    }
+
+    @Test
+    void testLogin_WarmsDefaultPage() {
+        when(taskVersionStore.currentVersion(1L)).thenReturn(2L);
+        when(taskRepository.findPageByCompleted(1L, false, Limit.of(6))).thenReturn(tasks);
+
+        openTaskListCache.onUserLoggedIn(new UserLoggedInEvent(1L));
+        openTaskListCache.get(1L, Limit.of(6));
+
+        verify(taskRepository, times(1)).findPageByCompleted(1L, false, Limit.of(6));
+    }
+
+    @Test
+    void testLogin_WarmingDisabled() {
+        openTaskListCache = new OpenTaskListCache(taskRepository, taskVersionStore, 100, 300000, 5, false);
+
+        openTaskListCache.onUserLoggedIn(new UserLoggedInEvent(1L));
+
+        verify(taskRepository, never()).findPageByCompleted(anyLong(), anyBoolean(), any());
+        verifyNoInteractions(taskVersionStore);
+    }
+}
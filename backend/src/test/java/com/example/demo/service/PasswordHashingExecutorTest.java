@@ -0,0 +1,76 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashingExecutorTest {
+
+    private PasswordHashingExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testExecute_ReturnsResultAndRecordsTiming() {
+        executor = new PasswordHashingExecutor(1, 1, 1000, 1);
+
+        assertEquals("hashed", executor.execute(() -> "hashed"));
+        assertEquals(1, executor.getHashCount());
+        assertEquals(0, executor.getRejectedCount());
+    }
+
+    @Test
+    void testExecute_RethrowsRuntimeExceptionUnchanged() {
+        executor = new PasswordHashingExecutor(1, 1, 1000, 1);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> executor.execute(() -> { throw new IllegalArgumentException("bad credentials"); }));
+
+        assertEquals("bad credentials", exception.getMessage());
+    }
+
+    @Test
+    void testExecute_RejectsWhenSaturated() throws Exception {
+        executor = new PasswordHashingExecutor(1, 1, 5000, 3);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> executor.execute(() -> {
+            started.countDown();
+            release.await();
+            return "first";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.execute(() -> "second"));
+        while (executor.getQueueDepth() == 0) {
+            Thread.onSpinWait();
+        }
+
+        HashingCapacityExceededException exception = assertThrows(HashingCapacityExceededException.class,
+                () -> executor.execute(() -> "third"));
+        assertEquals(3, exception.getRetryAfterSeconds());
+        assertEquals(1, executor.getRejectedCount());
+
+        release.countDown();
+        assertEquals("first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testExecute_TimesOutSlowHash() {
+        executor = new PasswordHashingExecutor(1, 1, 50, 1);
+
+        assertThrows(HashingCapacityExceededException.class, () -> executor.execute(() -> {
+            Thread.sleep(5000);
+            return "late";
+        }));
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.ArchivedTaskRepository;
+import com.example.demo.repository.TaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskArchiverTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Mock
+    private TaskVersionStore taskVersionStore;
+
+    @Mock
+    private TaskStatsService taskStatsService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TaskArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        archiver = newArchiver(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        archiver.shutdown();
+    }
+
+    @Test
+    void testArchiveChunk_MovesTasksAndBumpsVersionsInUserOrder() {
+        LocalDateTime cutoff = LocalDateTime.of(2024, 1, 1, 0, 0);
+        when(taskRepository.findArchivableIds(cutoff, Limit.of(2))).thenReturn(List.of(10L, 11L));
+        when(taskRepository.findUserIds(List.of(10L, 11L))).thenReturn(List.of(2L, 1L));
+        when(taskVersionStore.increment(1L)).thenReturn(5L);
+        when(taskVersionStore.increment(2L)).thenReturn(8L);
+
+        assertEquals(2, archiver.archiveChunk(cutoff));
+
+        InOrder inOrder = inOrder(taskVersionStore, archivedTaskRepository, taskRepository);
+        inOrder.verify(taskVersionStore).increment(1L);
+        inOrder.verify(taskVersionStore).increment(2L);
+        inOrder.verify(archivedTaskRepository).copyFromTasks(List.of(10L, 11L));
+        inOrder.verify(taskRepository).deleteAllByIdInBatch(List.of(10L, 11L));
+        verify(eventPublisher).publishEvent(new TaskChangedEvent(1L, 5L));
+        verify(eventPublisher).publishEvent(new TaskChangedEvent(2L, 8L));
+        verifyNoInteractions(taskStatsService);
+        assertEquals(2, archiver.getArchivedCount());
+    }
+
+    @Test
+    void testArchiveChunk_NothingDueTouchesNoUser() {
+        when(taskRepository.findArchivableIds(any(), any())).thenReturn(List.of());
+
+        assertEquals(0, archiver.archiveChunk(LocalDateTime.now()));
+
+        verifyNoInteractions(taskVersionStore, archivedTaskRepository, eventPublisher);
+    }
+
+    @Test
+    void testPurgeChunk_DeletesAndUpdatesStatsPerUser() {
+        LocalDateTime cutoff = LocalDateTime.of(2023, 1, 1, 0, 0);
+        when(archivedTaskRepository.findPurgeableIds(cutoff, Limit.of(2))).thenReturn(List.of(20L, 21L));
+        when(archivedTaskRepository.findUserIds(List.of(20L, 21L))).thenReturn(List.of(3L, 3L));
+        when(taskVersionStore.increment(3L)).thenReturn(4L);
+
+        assertEquals(2, archiver.purgeChunk(cutoff));
+
+        verify(taskStatsService).recordPurged(3L, 2);
+        verify(archivedTaskRepository).deleteAllByIdInBatch(List.of(20L, 21L));
+        verify(eventPublisher).publishEvent(new TaskChangedEvent(3L, 4L));
+        assertEquals(2, archiver.getPurgedCount());
+    }
+
+    @Test
+    void testRun_DrainsFullChunksAndSkipsPurgeWithoutRetention() throws Exception {
+        when(taskRepository.findUndatedCompletedIds(Limit.of(2))).thenReturn(List.of());
+        when(taskRepository.findArchivableIds(any(), any()))
+                .thenReturn(List.of(10L, 11L))
+                .thenReturn(List.of(12L));
+        when(taskRepository.findUserIds(any())).thenReturn(List.of(1L));
+
+        archiver.run();
+
+        verify(taskRepository, times(2)).findArchivableIds(any(), any());
+        verify(archivedTaskRepository, never()).findPurgeableIds(any(), any());
+        assertEquals(3, archiver.getArchivedCount());
+    }
+
+    @Test
+    void testRun_BackfillsUndatedCompletionsFirst() throws Exception {
+        archiver.shutdown();
+        archiver = newArchiver(365);
+        when(taskRepository.findUndatedCompletedIds(Limit.of(2))).thenReturn(List.of(7L));
+        when(taskRepository.backfillCompletedAt(List.of(7L))).thenReturn(1);
+        when(taskRepository.findArchivableIds(any(), any())).thenReturn(List.of());
+        when(archivedTaskRepository.findPurgeableIds(any(), any())).thenReturn(List.of());
+
+        archiver.run();
+
+        InOrder inOrder = inOrder(taskRepository, archivedTaskRepository);
+        inOrder.verify(taskRepository).backfillCompletedAt(List.of(7L));
+        inOrder.verify(taskRepository).findArchivableIds(any(), any());
+        inOrder.verify(archivedTaskRepository).findPurgeableIds(any(), any());
+    }
+
+    private TaskArchiver newArchiver(int retentionDays) {
+        return new TaskArchiver(taskRepository, archivedTaskRepository, taskVersionStore, taskStatsService,
+                eventPublisher, transactionManager, false, 30, retentionDays, 2, 0, 60000);
+    }
+}
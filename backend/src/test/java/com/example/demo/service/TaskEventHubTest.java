@@ -0,0 +1,126 @@
+package com.example.demo.service;
+
+import com.example.demo.config.WithMockAuthenticatedUser;
+import com.example.demo.controller.TaskController;
+import com.example.demo.dto.ResponseTaskDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@WebMvcTest(TaskController.class)
+@Import(TaskEventHub.class)
+@TestPropertySource(properties = {
+    "tasks.stream.buffer-size=16",
+    "tasks.stream.timeout=60000",
+    "tasks.stream.heartbeat=60000"
+})
+public class TaskEventHubTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TaskEventHub taskEventHub;
+
+    @MockBean
+    private TaskService taskService;
+
+    @MockBean
+    private TaskVersionStore taskVersionStore;
+
+    @MockBean
+    private TaskStatsService taskStatsService;
+
+    @MockBean
+    private TaskExporter taskExporter;
+
+    @MockBean
+    private TaskImporter taskImporter;
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testSubscribe_SendsSyncWithCurrentVersion() throws Exception {
+        when(taskVersionStore.currentVersion(1L)).thenReturn(3L);
+        int connections = taskEventHub.getConnectionCount();
+
+        MvcResult result = openStream(null);
+
+        // The event's lines may be written separately, so wait for its data.
+        awaitContent(result, "\"version\":3");
+        assertTrue(result.getResponse().getContentAsString().contains("event:sync"));
+        assertEquals(connections + 1, taskEventHub.getConnectionCount());
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testSubscribe_UpToDateClientGetsNoSync() throws Exception {
+        when(taskVersionStore.currentVersion(1L)).thenReturn(3L);
+
+        MvcResult result = openStream("3");
+        taskEventHub.onTaskChanged(new TaskChangedEvent(1L, 4L, List.of(), List.of(9L)));
+
+        awaitContent(result, "event:task-completed");
+        assertFalse(result.getResponse().getContentAsString().contains("event:sync"));
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testTaskChanged_DeliveredOnlyToOwner() throws Exception {
+        when(taskVersionStore.currentVersion(1L)).thenReturn(3L);
+        ResponseTaskDTO task = new ResponseTaskDTO(10L, "Streamed Task", null, false, LocalDateTime.now());
+
+        MvcResult result = openStream("3");
+        taskEventHub.onTaskChanged(new TaskChangedEvent(2L, 1L, List.of(), List.of(99L)));
+        taskEventHub.onTaskChanged(new TaskChangedEvent(1L, 4L, List.of(task), List.of()));
+
+        awaitContent(result, "\"title\":\"Streamed Task\"");
+        String content = result.getResponse().getContentAsString();
+        assertTrue(content.contains("event:task-created"));
+        assertTrue(content.contains("id:4"));
+        assertFalse(content.contains("\"id\":99"));
+    }
+
+    @Test
+    @WithMockAuthenticatedUser(id = 1L, username = "test@example.com")
+    void testTaskChanged_UnknownChangeAsksForSync() throws Exception {
+        when(taskVersionStore.currentVersion(1L)).thenReturn(3L);
+
+        MvcResult result = openStream("3");
+        taskEventHub.onTaskChanged(new TaskChangedEvent(1L, 5L));
+
+        awaitContent(result, "\"version\":5");
+    }
+
+    private MvcResult openStream(String lastEventId) throws Exception {
+        var streamRequest = get("/api/tasks/stream");
+        if (lastEventId != null) {
+            streamRequest.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(streamRequest)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private static void awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!result.getResponse().getContentAsString().contains(expected)) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Expected <" + expected + "> in stream, got: " + result.getResponse().getContentAsString());
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.repository.ArchivedTaskRepository;
+import com.example.demo.repository.TaskRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskExporterTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Mock
+    private CompletionWriteBehindQueue completionQueue;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private TaskExporter exporter;
+
+    private final LocalDateTime createdAt = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+
+    @BeforeEach
+    void setUp() {
+        exporter = new TaskExporter(taskRepository, archivedTaskRepository, completionQueue, objectMapper,
+                transactionManager, 1);
+    }
+
+    @Test
+    void testExport_NdjsonWritesLiveThenArchivedTasksWithPendingCompletions() throws Exception {
+        when(completionQueue.pendingFor(1L)).thenReturn(Set.of(2L));
+        when(taskRepository.streamByUser(1L)).thenReturn(Stream.of(
+                new ResponseTaskDTO(1L, "Open", null, false, createdAt),
+                new ResponseTaskDTO(2L, "Completing", null, false, createdAt)));
+        when(archivedTaskRepository.streamByUser(1L)).thenReturn(Stream.of(
+                new ResponseTaskDTO(0L, "Archived", "old", true, createdAt)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(1L, TaskExporter.Format.NDJSON, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(3, lines.size());
+        assertEquals(List.of(1L, 2L, 0L), lines.stream()
+                .map(line -> readTask(line).getId()).toList());
+        assertEquals(List.of(false, true, true), lines.stream()
+                .map(line -> readTask(line).isCompleted()).toList());
+        assertEquals(createdAt, readTask(lines.get(0)).getCreatedAt());
+        assertEquals(1, exporter.getExportCount());
+        assertEquals(3, exporter.getExportedTaskCount());
+    }
+
+    @Test
+    void testExport_CsvQuotesFieldsThatNeedIt() throws Exception {
+        when(completionQueue.pendingFor(1L)).thenReturn(Set.of());
+        when(taskRepository.streamByUser(1L)).thenReturn(Stream.of(
+                new ResponseTaskDTO(1L, "Buy milk, eggs", "Say \"hi\"\nto Bob", false, createdAt),
+                new ResponseTaskDTO(2L, "Plain", null, true, createdAt)));
+        when(archivedTaskRepository.streamByUser(1L)).thenReturn(Stream.of());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(1L, TaskExporter.Format.CSV, out);
+
+        assertEquals("id,title,description,completed,createdAt\r\n"
+                        + "1,\"Buy milk, eggs\",\"Say \"\"hi\"\"\nto Bob\",false,2024-01-02T03:04:05\r\n"
+                        + "2,Plain,,true,2024-01-02T03:04:05\r\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExport_ClosesCursorWhenClientGoesAway() {
+        // Enough rows to overflow the writer's buffer mid-cursor.
+        Stream<ResponseTaskDTO> tasks = Stream.generate(() -> new ResponseTaskDTO(1L, "Open", null, false, createdAt))
+                .limit(10_000);
+        boolean[] closed = {false};
+        when(completionQueue.pendingFor(1L)).thenReturn(Set.of());
+        when(taskRepository.streamByUser(1L)).thenReturn(tasks.onClose(() -> closed[0] = true));
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () -> exporter.export(1L, TaskExporter.Format.CSV, broken));
+
+        assertTrue(closed[0]);
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(archivedTaskRepository);
+    }
+
+    @Test
+    void testOpen_LimitsConcurrentExports() throws Exception {
+        when(completionQueue.pendingFor(1L)).thenReturn(Set.of());
+        when(taskRepository.streamByUser(1L)).thenReturn(Stream.of());
+        when(archivedTaskRepository.streamByUser(1L)).thenReturn(Stream.of());
+
+        StreamingResponseBody body = exporter.open(1L, TaskExporter.Format.NDJSON);
+        assertNotNull(body);
+        assertEquals(1, exporter.getActiveCount());
+        assertNull(exporter.open(2L, TaskExporter.Format.NDJSON));
+
+        body.writeTo(new ByteArrayOutputStream());
+
+        assertEquals(0, exporter.getActiveCount());
+        assertNotNull(exporter.open(2L, TaskExporter.Format.NDJSON));
+    }
+
+    @Test
+    void testClose_ReleasesSlotOfExportThatNeverRan() throws Exception {
+        TaskExporter.Export export = exporter.open(1L, TaskExporter.Format.NDJSON);
+
+        export.close();
+
+        assertEquals(0, exporter.getActiveCount());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.writeTo(out);
+        assertEquals(0, out.size());
+        assertEquals(0, exporter.getActiveCount());
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void testClose_RunningExportKeepsSlotUntilDone() throws Exception {
+        TaskExporter.Export export = exporter.open(1L, TaskExporter.Format.NDJSON);
+        when(completionQueue.pendingFor(1L)).thenReturn(Set.of());
+        when(taskRepository.streamByUser(1L)).thenAnswer(invocation -> {
+            export.close();
+            assertEquals(1, exporter.getActiveCount());
+            return Stream.of();
+        });
+        when(archivedTaskRepository.streamByUser(1L)).thenReturn(Stream.of());
+
+        export.writeTo(new ByteArrayOutputStream());
+
+        assertEquals(0, exporter.getActiveCount());
+        assertNotNull(exporter.open(2L, TaskExporter.Format.NDJSON));
+    }
+
+    private ResponseTaskDTO readTask(String line) {
+        try {
+            return objectMapper.readValue(line, ResponseTaskDTO.class);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ImportResultDTO;
+import com.example.demo.dto.ImportTaskDTO;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskImporterTest {
+
+    @Mock
+    private TaskService taskService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private TaskImporter importer;
+
+    private final List<List<String>> chunks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        importer = new TaskImporter(taskService, objectMapper, 2, 2);
+    }
+
+    @Test
+    void testImportTasks_CommitsInChunks() throws Exception {
+        recordChunks();
+
+        ImportResultDTO result = importer.importTasks(1L, ndjson("""
+                {"title":"A","description":"first"}
+                {"title":"B","completed":true,"createdAt":"2023-05-01T12:00:00"}
+
+                {"title":"C","source":"other-tool"}
+                """));
+
+        assertEquals(3, result.getImported());
+        assertEquals(0, result.getRejected());
+        assertEquals(2, result.getChunks());
+        assertFalse(result.isAborted());
+        assertEquals(List.of(List.of("A", "B"), List.of("C")), chunks);
+        assertEquals(3, importer.getImportedCount());
+    }
+
+    @Test
+    void testImportTasks_SkipsInvalidLinesAndCapsErrors() throws Exception {
+        recordChunks();
+
+        ImportResultDTO result = importer.importTasks(1L, ndjson("""
+                {"title":"A"}
+                {"description":"no title"}
+                {"title":"B","createdAt":"yesterday"}
+                "not an object"
+                {"title":"%s"}
+                {"title":"C"}
+                """.formatted("x".repeat(TaskImporter.MAX_TEXT_LENGTH + 1))));
+
+        assertEquals(2, result.getImported());
+        assertEquals(4, result.getRejected());
+        assertFalse(result.isAborted());
+        assertEquals(2, result.getErrors().size());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        assertEquals("title is required", result.getErrors().get(0).getMessage());
+        assertEquals(3, result.getErrors().get(1).getLine());
+        assertEquals(List.of(List.of("A", "C")), chunks);
+    }
+
+    @Test
+    void testImportTasks_MalformedJsonStopsAfterCommittedChunks() throws Exception {
+        recordChunks();
+
+        ImportResultDTO result = importer.importTasks(1L, ndjson("""
+                {"title":"A"}
+                {"title":"B"}
+                {"title":"C"}
+                {"title": oops}
+                {"title":"D"}
+                """));
+
+        assertTrue(result.isAborted());
+        assertEquals(3, result.getImported());
+        assertEquals(List.of(List.of("A", "B"), List.of("C")), chunks);
+        assertEquals(4, result.getErrors().get(0).getLine());
+    }
+
+    @Test
+    void testImportTasks_ReadsLargeUploadsChunkByChunk() throws Exception {
+        int lines = 100_000;
+        when(taskService.importTasks(eq(1L), anyList())).thenAnswer(invocation -> {
+            List<ImportTaskDTO> chunk = invocation.getArgument(1);
+            assertTrue(chunk.size() <= 2);
+            return chunk.size();
+        });
+
+        ImportResultDTO result = importer.importTasks(1L, new GeneratedLines(lines));
+
+        assertEquals(lines, result.getImported());
+        assertEquals(lines / 2, result.getChunks());
+        verify(taskService, times(lines / 2)).importTasks(eq(1L), anyList());
+    }
+
+    @Test
+    void testImportTasks_EmptyBodyImportsNothing() throws Exception {
+        ImportResultDTO result = importer.importTasks(1L, ndjson(""));
+
+        assertEquals(0, result.getImported());
+        verifyNoInteractions(taskService);
+    }
+
+    private void recordChunks() {
+        when(taskService.importTasks(eq(1L), anyList())).thenAnswer(invocation -> {
+            List<ImportTaskDTO> chunk = invocation.getArgument(1);
+            chunks.add(chunk.stream().map(ImportTaskDTO::getTitle).toList());
+            return chunk.size();
+        });
+    }
+
+    private static InputStream ndjson(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Produces the upload a line at a time, as a slow client would, without ever holding all of it.
+    private static class GeneratedLines extends InputStream {
+
+        private final int lines;
+        private int line;
+        private byte[] current = new byte[0];
+        private int position;
+
+        GeneratedLines(int lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public int read() {
+            if (position == current.length) {
+                if (line == lines) {
+                    return -1;
+                }
+                line++;
+                current = ("{\"title\":\"Task " + line + "\",\"createdAt\":\"" + LocalDateTime.of(2024, 1, 1, 0, 0)
+                        + "\"}\n").getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return current[position++];
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskPartitionMigratorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testMigrate_SkipsOtherDatabases() throws Exception {
+        when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<String>>any())).thenReturn("H2");
+
+        assertFalse(newMigrator().migrate());
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void testMigrate_SkipsPartitionedTable() throws Exception {
+        when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<String>>any())).thenReturn("PostgreSQL");
+        when(jdbcTemplate.queryForObject(startsWith("select count(*) from pg_partitioned_table"), eq(Integer.class),
+                eq("task"))).thenReturn(1);
+
+        assertFalse(newMigrator().migrate());
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void testMigrate_CopiesThroughSyncedStagingTableThenSwaps() throws Exception {
+        when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<String>>any())).thenReturn("PostgreSQL");
+        when(jdbcTemplate.queryForObject(startsWith("select count(*) from pg_partitioned_table"), eq(Integer.class),
+                eq("task"))).thenReturn(0);
+        when(jdbcTemplate.queryForList(startsWith("select column_name"), eq(String.class), eq("task")))
+                .thenReturn(List.of("id", "title", "user_id"));
+        when(jdbcTemplate.queryForObject(startsWith("select conname"), eq(String.class), eq("task")))
+                .thenReturn("task_pkey");
+        when(jdbcTemplate.queryForList(startsWith("select indexname"), eq(String.class), eq("task"), eq("task")))
+                .thenReturn(List.of("idx_task_user_created"));
+        when(jdbcTemplate.queryForObject(startsWith("select to_regclass"), eq(Boolean.class), eq("task_partitioned")))
+                .thenReturn(false);
+        when(jdbcTemplate.queryForObject(startsWith("select indexdef"), eq(String.class), eq("idx_task_user_created")))
+                .thenReturn("CREATE INDEX idx_task_user_created ON public.task USING btree (user_id, created_at DESC)");
+        when(jdbcTemplate.queryForObject(startsWith("select max(id)"), eq(Long.class), any(), any()))
+                .thenReturn(10L)
+                .thenReturn(null);
+        when(jdbcTemplate.update(startsWith("insert into task_partitioned"), eq(Long.MIN_VALUE), eq(10L)))
+                .thenReturn(3);
+
+        assertTrue(newMigrator().migrate());
+
+        verify(jdbcTemplate).update(contains(" order by id for share on conflict (id, user_id) do nothing"),
+                eq(Long.MIN_VALUE), eq(10L));
+
+        ArgumentCaptor<String> statements = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(statements.capture());
+        List<String> executed = statements.getAllValues();
+        assertEquals("create table task_partitioned (like task including defaults) partition by hash (user_id)",
+                executed.get(0));
+        assertTrue(executed.contains("create table task_p3 partition of task_partitioned"
+                + " for values with (modulus 4, remainder 3)"));
+        assertTrue(executed.contains("CREATE INDEX idx_task_user_created_part ON task_partitioned"
+                + " USING btree (user_id, created_at DESC)"));
+        assertTrue(executed.stream().anyMatch(sql -> sql.contains("on conflict (id, user_id) do update set"
+                + " (title) = row(excluded.title)")));
+        int trigger = executed.indexOf("create trigger task_partition_sync after insert or update or delete on task"
+                + " for each row execute function task_partition_sync()");
+        int lock = executed.indexOf("lock table task in access exclusive mode");
+        assertTrue(trigger >= 0 && lock > trigger);
+        assertTrue(executed.indexOf("alter table task rename to task_unpartitioned") > lock);
+        assertTrue(executed.contains("alter index idx_task_user_created_part rename to idx_task_user_created"));
+        assertEquals("alter table task rename constraint task_partitioned_pkey to task_pkey",
+                executed.get(executed.size() - 1));
+    }
+
+    private TaskPartitionMigrator newMigrator() {
+        return new TaskPartitionMigrator(jdbcTemplate, transactionManager, true, 4, 2, 0);
+    }
+}
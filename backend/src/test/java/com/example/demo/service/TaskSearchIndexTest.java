@@ -0,0 +1,159 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.repository.TaskText;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskSearchIndexTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TaskSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TaskSearchIndex(taskRepository, transactionManager, 1_000_000, false);
+    }
+
+    @Test
+    void testTokenize_LowercasesAndSplitsOnPunctuation() {
+        assertEquals(List.of("buy", "oat", "milk", "2l"), TaskSearchIndex.tokenize("Buy OAT-milk (2L), a"));
+        assertEquals(List.of(), TaskSearchIndex.tokenize(null));
+    }
+
+    @Test
+    void testSearch_LoadsUserOnceAndMatchesPrefixes() {
+        when(taskRepository.streamTextByUser(1L)).thenReturn(Stream.of(
+                new TaskText(1L, 10L, "Buy milk", "from the corner shop", false),
+                new TaskText(1L, 11L, "Call mum", null, false),
+                new TaskText(1L, 12L, "Shopping list", "milk, eggs", false)));
+
+        assertEquals(List.of(10L, 12L), index.search(1L, "mil", null, Set.of(), 10));
+        assertEquals(List.of(10L), index.search(1L, "milk corner", null, Set.of(), 10));
+        assertEquals(List.of(), index.search(1L, "bread", null, Set.of(), 10));
+
+        verify(taskRepository, times(1)).streamTextByUser(1L);
+        assertEquals(1, index.getIndexedUserCount());
+        assertTrue(index.getEstimatedBytes() > 0);
+    }
+
+    @Test
+    void testSearch_TitleAndWholeWordRankFirst() {
+        when(taskRepository.streamTextByUser(1L)).thenReturn(Stream.of(
+                new TaskText(1L, 10L, "Groceries", null, false),
+                new TaskText(1L, 11L, "Errands", "grocery run", false),
+                new TaskText(1L, 12L, "Grocery", null, false)));
+
+        // Title matches outrank description matches; equal scores fall back to the newer task.
+        assertEquals(List.of(12L, 10L, 11L), index.search(1L, "groc", null, Set.of(), 10));
+        // "groceries" is not a prefix match for "grocery".
+        assertEquals(List.of(12L, 11L), index.search(1L, "grocery", null, Set.of(), 10));
+    }
+
+    @Test
+    void testSearch_FiltersByStateIncludingQueuedCompletions() {
+        when(taskRepository.streamTextByUser(1L)).thenReturn(Stream.of(
+                new TaskText(1L, 10L, "Pay rent", null, true),
+                new TaskText(1L, 11L, "Pay bills", null, false),
+                new TaskText(1L, 12L, "Pay tax", null, false)));
+
+        assertEquals(List.of(10L), index.search(1L, "pay", true, Set.of(), 10));
+        assertEquals(List.of(12L, 10L), index.search(1L, "pay", true, Set.of(12L), 10));
+        assertEquals(List.of(11L), index.search(1L, "pay", false, Set.of(12L), 10));
+    }
+
+    @Test
+    void testTaskChanged_IndexesCreatedAndCompletedTasks() {
+        when(taskRepository.streamTextByUser(1L)).thenReturn(Stream.empty());
+        assertEquals(List.of(), index.search(1L, "walk", null, Set.of(), 10));
+
+        ResponseTaskDTO created = new ResponseTaskDTO(20L, "Walk the dog", null, false, LocalDateTime.now());
+        index.onTaskChanged(new TaskChangedEvent(1L, 1L, List.of(created), List.of()));
+        assertEquals(List.of(20L), index.search(1L, "walk", false, Set.of(), 10));
+
+        index.onTaskChanged(new TaskChangedEvent(1L, 2L, List.of(), List.of(20L)));
+        assertEquals(List.of(), index.search(1L, "walk", false, Set.of(), 10));
+        assertEquals(List.of(20L), index.search(1L, "walk", true, Set.of(), 10));
+    }
+
+    @Test
+    void testTaskChanged_CompletionBeforeTaskIsLoadedIsKept() {
+        when(taskRepository.streamTextByUser(1L)).thenAnswer(invocation -> {
+            // Committed after the load's snapshot was taken, before the row is streamed in.
+            index.onTaskChanged(new TaskChangedEvent(1L, 2L, List.of(), List.of(10L)));
+            return Stream.of(new TaskText(1L, 10L, "Water plants", null, false));
+        });
+
+        assertEquals(List.of(10L), index.search(1L, "water", true, Set.of(), 10));
+        assertEquals(List.of(), index.search(1L, "water", false, Set.of(), 10));
+    }
+
+    @Test
+    void testTaskChanged_UnknownChangeReloadsUser() {
+        when(taskRepository.streamTextByUser(1L))
+                .thenReturn(Stream.of(new TaskText(1L, 10L, "Water plants", null, false)))
+                .thenReturn(Stream.of(new TaskText(1L, 10L, "Water plants", null, true)));
+        index.search(1L, "water", null, Set.of(), 10);
+
+        index.onTaskChanged(new TaskChangedEvent(1L, 2L));
+
+        assertEquals(List.of(10L), index.search(1L, "water", true, Set.of(), 10));
+        verify(taskRepository, times(2)).streamTextByUser(1L);
+    }
+
+    @Test
+    void testMemoryCap_EvictsLeastRecentlyUsedUser() {
+        index = new TaskSearchIndex(taskRepository, transactionManager, 1000, false);
+        when(taskRepository.streamTextByUser(anyLong())).thenAnswer(invocation -> {
+            Long userId = invocation.getArgument(0);
+            return Stream.of(new TaskText(userId, userId * 100, "Something quite long for user " + userId,
+                    "with a fairly wordy description to fill the index", false));
+        });
+
+        index.search(1L, "something", null, Set.of(), 10);
+        index.search(2L, "something", null, Set.of(), 10);
+        index.search(3L, "something", null, Set.of(), 10);
+
+        // Each user's index alone exceeds the cap, so only the most recent one is kept.
+        assertEquals(1, index.getIndexedUserCount());
+        assertEquals(2, index.getEvictionCount());
+        assertEquals(List.of(100L), index.search(1L, "something", null, Set.of(), 10));
+        verify(taskRepository, times(2)).streamTextByUser(1L);
+    }
+
+    @Test
+    void testRebuild_StreamsAllUsersAndSkipsUsersChangedMeanwhile() {
+        when(taskRepository.streamAllText()).thenAnswer(invocation -> {
+            // A change for user 2 commits while the scan is running.
+            index.onTaskChanged(new TaskChangedEvent(2L, 5L));
+            return Stream.of(
+                    new TaskText(1L, 10L, "Read book", null, false),
+                    new TaskText(2L, 20L, "Read paper", null, false));
+        });
+
+        index.rebuild();
+
+        assertEquals(1, index.getIndexedUserCount());
+        assertEquals(List.of(10L), index.search(1L, "read", null, Set.of(), 10));
+        verify(taskRepository, never()).streamTextByUser(1L);
+    }
+}
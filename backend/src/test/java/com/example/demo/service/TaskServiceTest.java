@@ -0,0 +1,355 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BatchRequestDTO;
+import com.example.demo.dto.BatchResponseDTO;
+import com.example.demo.dto.CreateTaskDTO;
+import com.example.demo.dto.ImportTaskDTO;
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.dto.TaskCursor;
+import com.example.demo.model.Task;
+import com.example.demo.model.User;
+import com.example.demo.repository.ArchivedTaskRepository;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskServiceTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TaskVersionStore taskVersionStore;
+
+    @Mock
+    private OpenTaskListCache openTaskListCache;
+
+    @Mock
+    private CompletionWriteBehindQueue completionQueue;
+
+    @Mock
+    private TaskSearchIndex taskSearchIndex;
+
+    @Mock
+    private TaskStatsService taskStatsService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private TaskService taskService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setEmail("test@example.com");
+    }
+
+    @Test
+    void testCreateTask_UsesUserReference() {
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+        when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> {
+            Task task = invocation.getArgument(0);
+            task.setId(10L);
+            return task;
+        });
+
+        ResponseTaskDTO created = taskService.createTask(1L, createTaskDTO("New Task"));
+
+        assertEquals(10L, created.getId());
+        assertEquals("New Task", created.getTitle());
+        assertFalse(created.isCompleted());
+        assertNotNull(created.getCreatedAt());
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(taskVersionStore).increment(1L);
+        verify(taskStatsService).record(1L, List.of(created), 0);
+    }
+
+    @Test
+    void testGetTasks_FirstOpenPageUsesCache() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        TaskCursor after = new TaskCursor(createdAt, 7L);
+
+        taskService.getTasks(1L, false, null, Limit.of(6));
+        taskService.getTasks(1L, true, after, Limit.of(6));
+        taskService.getTasks(1L, null, null, Limit.of(6));
+        taskService.getTasks(1L, null, after, Limit.of(6));
+
+        verify(openTaskListCache).get(1L, Limit.of(6));
+        verify(taskRepository, never()).findPageByCompleted(anyLong(), anyBoolean(), any());
+        verify(taskRepository).findPageByCompletedAfter(1L, true, createdAt, 7L, Limit.of(6));
+        verify(taskRepository).findPage(1L, Limit.of(6));
+        verify(taskRepository).findPageAfter(1L, createdAt, 7L, Limit.of(6));
+    }
+
+    @Test
+    void testGetArchivedTasks_ReadsArchivePages() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+        taskService.getArchivedTasks(1L, null, Limit.of(6));
+        taskService.getArchivedTasks(1L, new TaskCursor(createdAt, 7L), Limit.of(6));
+
+        verify(archivedTaskRepository).findPage(1L, Limit.of(6));
+        verify(archivedTaskRepository).findPageAfter(1L, createdAt, 7L, Limit.of(6));
+        verifyNoInteractions(taskRepository, openTaskListCache);
+    }
+
+    @Test
+    void testCompleteTask_PublishesNewVersion() {
+        when(taskRepository.completeTask(5L, 1L)).thenReturn(1);
+        when(taskVersionStore.increment(1L)).thenReturn(7L);
+
+        assertTrue(taskService.completeTask(1L, 5L));
+
+        verify(eventPublisher).publishEvent(new TaskChangedEvent(1L, 7L, List.of(), List.of(5L)));
+        verify(taskStatsService).record(1L, List.of(), 1);
+    }
+
+    @Test
+    void testCompleteTask_NoChangeKeepsVersion() {
+        when(taskRepository.completeTask(5L, 1L)).thenReturn(0);
+
+        assertFalse(taskService.completeTask(1L, 5L));
+
+        verify(taskVersionStore, never()).increment(anyLong());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testCompleteTask_AlreadyCompletedSucceedsWithoutChange() {
+        when(taskRepository.completeTask(5L, 1L)).thenReturn(0);
+        when(taskRepository.existsByIdAndUserId(5L, 1L)).thenReturn(true);
+
+        assertTrue(taskService.completeTask(1L, 5L));
+
+        verify(taskVersionStore, never()).increment(anyLong());
+        verifyNoInteractions(taskStatsService, eventPublisher);
+    }
+
+    @Test
+    void testCompleteTask_WriteBehindQueuesOwnedTask() {
+        when(completionQueue.isEnabled()).thenReturn(true);
+        when(taskRepository.findOwnedIds(List.of(5L), 1L)).thenReturn(List.of(5L));
+
+        assertTrue(taskService.completeTask(1L, 5L));
+
+        verify(completionQueue).enqueue(1L, 5L);
+        verify(taskRepository, never()).completeTask(anyLong(), anyLong());
+        verify(taskVersionStore, never()).increment(anyLong());
+        // Only the ownership read's own transaction; none is held while the journal syncs.
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void testCompleteTask_WriteBehindRejectsForeignTask() {
+        when(completionQueue.isEnabled()).thenReturn(true);
+        when(taskRepository.findOwnedIds(List.of(5L), 1L)).thenReturn(List.of());
+
+        assertFalse(taskService.completeTask(1L, 5L));
+
+        verify(completionQueue, never()).enqueue(anyLong(), anyLong());
+    }
+
+    @Test
+    void testGetTasks_OpenPageHidesQueuedCompletions() {
+        LocalDateTime now = LocalDateTime.now();
+        when(completionQueue.pendingFor(1L)).thenReturn(Set.of(2L));
+        when(openTaskListCache.get(1L, Limit.of(3))).thenReturn(List.of(
+                new ResponseTaskDTO(3L, "C", null, false, now),
+                new ResponseTaskDTO(2L, "B", null, false, now.minusMinutes(1)),
+                new ResponseTaskDTO(1L, "A", null, false, now.minusMinutes(2))));
+
+        List<ResponseTaskDTO> tasks = taskService.getTasks(1L, false, null, Limit.of(2));
+
+        assertEquals(List.of(3L, 1L), tasks.stream().map(ResponseTaskDTO::getId).toList());
+    }
+
+    @Test
+    void testGetTasks_CompletedPageIncludesQueuedCompletions() {
+        LocalDateTime now = LocalDateTime.now();
+        when(completionQueue.pendingFor(1L)).thenReturn(Set.of(2L));
+        when(taskRepository.findPageByCompleted(1L, true, Limit.of(2))).thenReturn(new ArrayList<>(List.of(
+                new ResponseTaskDTO(3L, "C", null, true, now),
+                new ResponseTaskDTO(1L, "A", null, true, now.minusMinutes(2)))));
+        when(taskRepository.findByIds(Set.of(2L), 1L)).thenReturn(List.of(
+                new ResponseTaskDTO(2L, "B", null, false, now.minusMinutes(1))));
+
+        List<ResponseTaskDTO> tasks = taskService.getTasks(1L, true, null, Limit.of(2));
+
+        assertEquals(List.of(3L, 2L), tasks.stream().map(ResponseTaskDTO::getId).toList());
+        assertTrue(tasks.get(1).isCompleted());
+    }
+
+    @Test
+    void testSearchTasks_KeepsIndexRanking() {
+        LocalDateTime now = LocalDateTime.now();
+        when(completionQueue.pendingFor(1L)).thenReturn(Set.of(7L));
+        when(taskSearchIndex.search(1L, "milk", null, Set.of(7L), 5)).thenReturn(List.of(7L, 3L));
+        when(taskRepository.findByIds(List.of(7L, 3L), 1L)).thenReturn(List.of(
+                new ResponseTaskDTO(3L, "Milk", null, false, now),
+                new ResponseTaskDTO(7L, "Buy milk", null, false, now)));
+
+        List<ResponseTaskDTO> results = taskService.searchTasks(1L, "milk", null, 5);
+
+        assertEquals(List.of(7L, 3L), results.stream().map(ResponseTaskDTO::getId).toList());
+        assertTrue(results.get(0).isCompleted());
+    }
+
+    @Test
+    void testSearchTasks_NoMatchRunsNoQuery() {
+        when(taskSearchIndex.search(eq(1L), eq("zzz"), any(), anySet(), eq(5))).thenReturn(List.of());
+
+        assertTrue(taskService.searchTasks(1L, "zzz", null, 5).isEmpty());
+
+        verify(taskRepository, never()).findByIds(anyCollection(), anyLong());
+    }
+
+    @Test
+    void testGetTaskListVersion_IncludesQueuedCompletions() {
+        when(taskVersionStore.currentVersion(1L)).thenReturn(4L);
+        assertEquals("4", taskService.getTaskListVersion(1L));
+
+        when(completionQueue.stampFor(1L)).thenReturn(9L);
+        assertEquals("4.9", taskService.getTaskListVersion(1L));
+    }
+
+    @Test
+    void testCompleteTasks_PartialUpdateAsksForResync() {
+        when(taskRepository.completeTasks(Set.of(5L, 6L), 1L)).thenReturn(1);
+        when(taskVersionStore.increment(1L)).thenReturn(8L);
+
+        assertEquals(1, taskService.completeTasks(1L, Set.of(5L, 6L)));
+
+        verify(eventPublisher).publishEvent(new TaskChangedEvent(1L, 8L));
+        verify(taskStatsService).record(1L, List.of(), 1);
+    }
+
+    @Test
+    void testCompleteTasks_EmptyRunsNoQuery() {
+        assertEquals(0, taskService.completeTasks(1L, Set.of()));
+
+        verify(taskRepository, never()).completeTasks(anyCollection(), anyLong());
+    }
+
+    @Test
+    void testApplyBatch_SavesAllThenCompletesOwnedInOneUpdate() {
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+        when(taskRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Task> tasks = invocation.getArgument(0);
+            long id = 100;
+            for (Task task : tasks) {
+                task.setId(id++);
+            }
+            return tasks;
+        });
+        when(taskRepository.findOwnedIds(Set.of(1L, 2L, 99L), 1L)).thenReturn(List.of(1L, 2L));
+
+        BatchRequestDTO request = new BatchRequestDTO();
+        request.setCreate(List.of(createTaskDTO("A"), createTaskDTO("B")));
+        request.setComplete(List.of(1L, 99L, 2L));
+
+        BatchResponseDTO response = taskService.applyBatch(1L, request);
+
+        assertEquals(List.of(100L, 101L), response.getCreated().stream().map(ResponseTaskDTO::getId).toList());
+        assertEquals(List.of("completed", "not_found", "completed"),
+                response.getCompleted().stream().map(BatchResponseDTO.CompleteResultDTO::getStatus).toList());
+        verify(taskRepository, times(1)).saveAll(anyList());
+        verify(taskRepository, never()).save(any(Task.class));
+        verify(taskRepository, times(1)).completeTasks(Set.of(1L, 2L), 1L);
+        verify(taskVersionStore, times(1)).increment(1L);
+        verify(taskStatsService).record(1L, response.getCreated(), 0);
+    }
+
+    @Test
+    void testApplyBatch_NothingOwnedSkipsUpdate() {
+        when(taskRepository.findOwnedIds(Set.of(5L), 1L)).thenReturn(new ArrayList<>());
+
+        BatchRequestDTO request = new BatchRequestDTO();
+        request.setComplete(List.of(5L));
+
+        BatchResponseDTO response = taskService.applyBatch(1L, request);
+
+        assertTrue(response.getCreated().isEmpty());
+        assertEquals("not_found", response.getCompleted().get(0).getStatus());
+        verify(taskRepository, never()).completeTasks(anyCollection(), anyLong());
+        verify(userRepository, never()).getReferenceById(anyLong());
+        verify(taskVersionStore, never()).increment(anyLong());
+    }
+
+    @Test
+    void testImportTasks_KeepsImportedStateAndCountsCompletions() {
+        LocalDateTime createdAt = LocalDateTime.of(2023, 5, 1, 12, 0);
+        List<Task> saved = new ArrayList<>();
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+        when(taskRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Task> tasks = invocation.getArgument(0);
+            long id = 200;
+            for (Task task : tasks) {
+                task.setId(id++);
+            }
+            saved.addAll(tasks);
+            return tasks;
+        });
+        when(taskVersionStore.increment(1L)).thenReturn(3L);
+
+        ImportTaskDTO open = new ImportTaskDTO();
+        open.setTitle("Open");
+        ImportTaskDTO done = new ImportTaskDTO();
+        done.setTitle("Done");
+        done.setCompleted(true);
+        done.setCreatedAt(createdAt);
+
+        assertEquals(2, taskService.importTasks(1L, List.of(open, done)));
+
+        Task savedDone = saved.get(1);
+        assertNotNull(saved.get(0).getCreatedAt());
+        assertNull(saved.get(0).getCompletedAt());
+        assertEquals(createdAt, savedDone.getCreatedAt());
+        assertEquals(createdAt, savedDone.getCompletedAt());
+        assertTrue(savedDone.isCompleted());
+        verify(taskStatsService).record(eq(1L), argThat(created -> created.size() == 2), eq(1));
+        verify(eventPublisher).publishEvent(any(TaskChangedEvent.class));
+    }
+
+    private static CreateTaskDTO createTaskDTO(String title) {
+        CreateTaskDTO createTaskDTO = new CreateTaskDTO();
+        createTaskDTO.setTitle(title);
+        return createTaskDTO;
+    }
+}
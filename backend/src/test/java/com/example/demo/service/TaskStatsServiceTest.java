@@ -0,0 +1,185 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DailyCountDTO;
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.dto.TaskStatsDTO;
+import com.example.demo.model.TaskDailyCount;
+import com.example.demo.model.TaskStats;
+import com.example.demo.model.User;
+import com.example.demo.repository.ArchivedTaskRepository;
+import com.example.demo.repository.TaskDailyCountRepository;
+import com.example.demo.repository.TaskRepository;
+import com.example.demo.repository.TaskStatsRepository;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskStatsServiceTest {
+
+    @Mock
+    private TaskStatsRepository taskStatsRepository;
+
+    @Mock
+    private TaskDailyCountRepository taskDailyCountRepository;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private ArchivedTaskRepository archivedTaskRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TaskVersionStore taskVersionStore;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TaskStatsService taskStatsService;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        taskStatsService = new TaskStatsService(taskStatsRepository, taskDailyCountRepository, taskRepository,
+                archivedTaskRepository, userRepository, taskVersionStore, transactionManager, 7, 100, 60000, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskStatsService.shutdown();
+    }
+
+    @Test
+    void testGetStats_FirstReadBuildsCountersFromTasksAndArchive() {
+        when(taskStatsRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.lockById(1L)).thenReturn(Optional.of(new User()));
+        when(taskRepository.countByUserIdAndCompleted(1L, false)).thenReturn(3L);
+        when(taskRepository.countByUserIdAndCompleted(1L, true)).thenReturn(1L);
+        when(archivedTaskRepository.countByUserId(1L)).thenReturn(2L);
+        when(taskRepository.countCreatedPerDay(1L, today.minusDays(6).atStartOfDay()))
+                .thenReturn(List.of(new DailyCountDTO(today, 3L)));
+        when(archivedTaskRepository.countCreatedPerDay(1L, today.minusDays(6).atStartOfDay()))
+                .thenReturn(List.of(new DailyCountDTO(today, 1L)));
+        when(taskStatsRepository.save(any(TaskStats.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(taskDailyCountRepository.findByUserIdAndDayGreaterThanEqualOrderByDayAsc(1L, today.minusDays(6)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(new TaskDailyCount(1L, today, 4)));
+
+        TaskStatsDTO stats = taskStatsService.getStats(1L, 3);
+
+        assertEquals(3, stats.getOpen());
+        assertEquals(3, stats.getCompleted());
+        assertEquals(List.of(today.minusDays(2), today.minusDays(1), today),
+                stats.getCreatedPerDay().stream().map(DailyCountDTO::getDay).toList());
+        assertEquals(List.of(0L, 0L, 4L), stats.getCreatedPerDay().stream().map(DailyCountDTO::getCount).toList());
+        verify(taskDailyCountRepository).saveAll(anyList());
+        assertEquals(1, taskStatsService.getReconciledCount());
+        assertEquals(0, taskStatsService.getRepairedCount());
+    }
+
+    @Test
+    void testGetStats_ServedFromSnapshotUntilVersionChanges() {
+        when(taskVersionStore.currentVersion(1L)).thenReturn(4L, 4L, 5L);
+        when(taskStatsRepository.findById(1L)).thenReturn(Optional.of(new TaskStats(1L, 2, 0)));
+
+        taskStatsService.getStats(1L, 7);
+        taskStatsService.getStats(1L, 3);
+        verify(taskStatsRepository, times(1)).findById(1L);
+
+        taskStatsService.getStats(1L, 7);
+        verify(taskStatsRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testGetStats_ClampsDaysToWindow() {
+        when(taskStatsRepository.findById(1L)).thenReturn(Optional.of(new TaskStats(1L, 0, 0)));
+
+        assertEquals(7, taskStatsService.getStats(1L, 365).getCreatedPerDay().size());
+        assertEquals(1, taskStatsService.getStats(1L, 0).getCreatedPerDay().size());
+    }
+
+    @Test
+    void testRecord_UpdatesCountersAndInsertsNewDays() {
+        LocalDateTime now = LocalDateTime.now();
+        when(taskStatsRepository.addCounts(1L, 3, 1)).thenReturn(1);
+        when(taskDailyCountRepository.addCreated(1L, now.toLocalDate().minusDays(1), 1)).thenReturn(1);
+        when(taskDailyCountRepository.addCreated(1L, now.toLocalDate(), 2)).thenReturn(0);
+
+        taskStatsService.record(1L, List.of(task(10L, now), task(11L, now), task(12L, now.minusDays(1))), 1);
+
+        verify(taskDailyCountRepository).save(any(TaskDailyCount.class));
+    }
+
+    @Test
+    void testRecord_SkipsUsersWithoutCounters() {
+        when(taskStatsRepository.addCounts(1L, 1, 0)).thenReturn(0);
+
+        taskStatsService.record(1L, List.of(task(10L, LocalDateTime.now())), 0);
+
+        verifyNoInteractions(taskDailyCountRepository);
+    }
+
+    @Test
+    void testRecordPurged_RemovesCompleted() {
+        taskStatsService.recordPurged(1L, 4);
+
+        verify(taskStatsRepository).removeCompleted(1L, 4);
+    }
+
+    @Test
+    void testReconcile_RepairsDriftedCounters() {
+        when(userRepository.lockById(1L)).thenReturn(Optional.of(new User()));
+        when(taskRepository.countByUserIdAndCompleted(1L, false)).thenReturn(4L);
+        when(taskRepository.countByUserIdAndCompleted(1L, true)).thenReturn(2L);
+        when(taskStatsRepository.findById(1L)).thenReturn(Optional.of(new TaskStats(1L, 5, 1)));
+        when(taskStatsRepository.save(any(TaskStats.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(taskRepository.countCreatedPerDay(anyLong(), any())).thenReturn(List.of(new DailyCountDTO(today, 1L)));
+        when(taskDailyCountRepository.findByUserIdAndDayGreaterThanEqualOrderByDayAsc(1L, today.minusDays(6)))
+                .thenReturn(List.of(new TaskDailyCount(1L, today, 1)));
+
+        TaskStats stats = taskStatsService.reconcile(1L);
+
+        assertEquals(4, stats.getOpenCount());
+        assertEquals(2, stats.getCompletedCount());
+        assertEquals(1, taskStatsService.getRepairedCount());
+        verify(taskDailyCountRepository).deleteByUserBefore(1L, today.minusDays(6));
+        verify(taskDailyCountRepository, never()).deleteByUser(anyLong());
+    }
+
+    @Test
+    void testReconcileAll_ContinuesPastFailingUser() {
+        when(taskStatsRepository.findUserIdsAfter(0L, Limit.of(500))).thenReturn(List.of(1L, 2L));
+        when(userRepository.lockById(1L)).thenThrow(new QueryTimeoutException("lock timeout"));
+        when(userRepository.lockById(2L)).thenReturn(Optional.empty());
+
+        taskStatsService.reconcileAll();
+
+        verify(userRepository).lockById(2L);
+        assertEquals(1, taskStatsService.getReconciledCount());
+    }
+
+    private static ResponseTaskDTO task(Long id, LocalDateTime createdAt) {
+        return new ResponseTaskDTO(id, "Task " + id, null, false, createdAt);
+    }
+}
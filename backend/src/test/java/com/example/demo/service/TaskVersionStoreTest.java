@@ -0,0 +1,61 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaskVersionStoreTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private TaskVersionStore taskVersionStore;
+
+    @BeforeEach
+    void setUp() {
+        taskVersionStore = new TaskVersionStore(userRepository, 100, 300000);
+    }
+
+    @Test
+    void testCurrentVersion_LoadedOnceThenServedFromMemory() {
+        when(userRepository.findTaskVersion(1L)).thenReturn(Optional.of(3L));
+
+        assertEquals(3L, taskVersionStore.currentVersion(1L));
+        assertEquals(3L, taskVersionStore.currentVersion(1L));
+
+        verify(userRepository, times(1)).findTaskVersion(1L);
+    }
+
+    @Test
+    void testTaskChanged_AdvancesVersionWithoutQuery() {
+        taskVersionStore.onTaskChanged(new TaskChangedEvent(1L, 4L));
+
+        assertEquals(4L, taskVersionStore.currentVersion(1L));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testTaskChanged_OlderVersionIsIgnored() {
+        taskVersionStore.onTaskChanged(new TaskChangedEvent(1L, 5L));
+        taskVersionStore.onTaskChanged(new TaskChangedEvent(1L, 4L));
+
+        assertEquals(5L, taskVersionStore.currentVersion(1L));
+    }
+
+    @Test
+    void testIncrement_ReturnsStoredValue() {
+        when(userRepository.findTaskVersion(1L)).thenReturn(Optional.of(8L));
+
+        assertEquals(8L, taskVersionStore.increment(1L));
+        verify(userRepository).incrementTaskVersion(1L);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Takes the usual JMH command line, but always attaches
+ * the GC profiler, so every result carries {@code gc.alloc.rate.norm} (bytes allocated per
+ * operation), and writes JSON results to {@value #DEFAULT_RESULT} unless {@code -rf}/{@code -rff}
+ * say otherwise. Compare two result files with {@link ResultComparison}.
+ */
+public final class BenchmarkRunner {
+
+    static final String DEFAULT_RESULT = "jmh-result.json";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+                || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class);
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT);
+        }
+        new Runner(options.build()).run();
+    }
+}
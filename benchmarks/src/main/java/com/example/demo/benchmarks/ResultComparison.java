@@ -0,0 +1,74 @@
+package com.example.demo.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Prints, for each benchmark and parameter set found in both JSON result files, the score and
+ * the bytes allocated per operation before and after, with the relative change:
+ * <pre>java -cp benchmarks.jar com.example.demo.benchmarks.ResultComparison base.json head.json</pre>
+ */
+public final class ResultComparison {
+
+    static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private ResultComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ResultComparison <base.json> <head.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> base = read(new File(args[0]));
+        Map<String, JsonNode> head = read(new File(args[1]));
+        System.out.printf("%-70s %14s %14s %8s %12s %12s %8s%n",
+                "Benchmark", "Base", "Head", "Change", "Base B/op", "Head B/op", "Change");
+        head.forEach((name, after) -> {
+            JsonNode before = base.get(name);
+            if (before == null) {
+                return;
+            }
+            double scoreBefore = before.path("primaryMetric").path("score").asDouble();
+            double scoreAfter = after.path("primaryMetric").path("score").asDouble();
+            double allocatedBefore = allocation(before);
+            double allocatedAfter = allocation(after);
+            System.out.printf("%-70s %14.3f %14.3f %8s %12.1f %12.1f %8s %s%n",
+                    name, scoreBefore, scoreAfter, change(scoreBefore, scoreAfter),
+                    allocatedBefore, allocatedAfter, change(allocatedBefore, allocatedAfter),
+                    after.path("primaryMetric").path("scoreUnit").asText());
+        });
+    }
+
+    // Keyed by benchmark name and parameters, e.g. "...TaskJsonBenchmark.toBytes size=100".
+    static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder name = new StringBuilder(result.path("benchmark").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                name.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(name.toString(), result);
+        }
+        return results;
+    }
+
+    private static double allocation(JsonNode result) {
+        return result.path("secondaryMetrics").path(ALLOCATION).path("score").asDouble(Double.NaN);
+    }
+
+    private static String change(double before, double after) {
+        if (Double.isNaN(before) || Double.isNaN(after) || before == 0) {
+            return "n/a";
+        }
+        return String.format("%+.1f%%", (after - before) * 100 / before);
+    }
+}
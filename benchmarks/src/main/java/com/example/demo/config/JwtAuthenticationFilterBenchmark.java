@@ -0,0 +1,91 @@
+package com.example.demo.config;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwtAuthenticationFilter#doFilterInternal} for a token already in the verified-token
+ * cache, and for one that has to be parsed and its signature checked on every request (tokens
+ * without an expiry are never cached).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET =
+            "YmVuY2htYXJrLXNlY3JldC10aGF0LWlzLWNvbWZvcnRhYmx5LWxvbmdlci10aGFuLXNpeHR5LWZvdXItYnl0ZXMhIQ==";
+
+    private final FilterChain chain = (request, response) -> { };
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest cachedRequest;
+    private MockHttpServletRequest uncachedRequest;
+
+    @Setup
+    public void setUp() throws Exception {
+        filter = new JwtAuthenticationFilter(10_000, 3_600_000);
+        ReflectionTestUtils.setField(filter, "jwtSecret", SECRET);
+        cachedRequest = request(token(new Date(System.currentTimeMillis() + 3_600_000)));
+        uncachedRequest = request(token(null));
+        if (authenticate(cachedRequest) == null || authenticate(uncachedRequest) == null) {
+            throw new IllegalStateException("Benchmark tokens are not accepted by the filter");
+        }
+    }
+
+    @Benchmark
+    public Authentication cachedToken() throws Exception {
+        return authenticate(cachedRequest);
+    }
+
+    @Benchmark
+    public Authentication uncachedToken() throws Exception {
+        return authenticate(uncachedRequest);
+    }
+
+    private Authentication authenticate(MockHttpServletRequest request) throws Exception {
+        filter.doFilterInternal(request, response, chain);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    private static String token(Date expiration) {
+        return Jwts.builder()
+                .setSubject("bench@example.com")
+                .claim(AuthenticatedUser.CLAIM_USER_ID, 1L)
+                .claim(AuthenticatedUser.CLAIM_AUTHORITIES, "USER")
+                .setExpiration(expiration)
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a {@code GET /api/tasks} page, with an {@code ObjectMapper} set up
+ * the way Spring Boot sets up the application's. {@code toBytes} allocates the body like
+ * {@code writeValueAsBytes}; {@code toStream} writes into a reused buffer, as the message
+ * converter writes to the response stream.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskJsonBenchmark {
+
+    @Param({"5", "100"})
+    private int size;
+
+    private ObjectWriter writer;
+    private List<ResponseTaskDTO> tasks;
+    private ByteArrayOutputStream buffer;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writerFor(new TypeReference<List<ResponseTaskDTO>>() { });
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            tasks.add(new ResponseTaskDTO((long) i, "Task " + i, "Description for task number " + i,
+                    i % 3 == 0, createdAt.plusMinutes(i)));
+        }
+        buffer = new ByteArrayOutputStream(256 * size);
+    }
+
+    @Benchmark
+    public byte[] toBytes() throws IOException {
+        return writer.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public int toStream() throws IOException {
+        buffer.reset();
+        writer.writeValue(buffer, tasks);
+        return buffer.size();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ResponseTaskDTO;
+import com.example.demo.model.Task;
+import com.example.demo.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code Task} to {@link ResponseTaskDTO} copy that create and batch responses go through,
+ * {@link TaskService#toResponse}, over a page of the default and the maximum size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskMappingBenchmark {
+
+    @Param({"5", "100"})
+    private int size;
+
+    private List<Task> tasks;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("bench@example.com");
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Task task = new Task();
+            task.setId((long) i);
+            task.setTitle("Task " + i);
+            task.setDescription("Description for task number " + i);
+            task.setCompleted(i % 3 == 0);
+            task.setCreatedAt(createdAt.plusMinutes(i));
+            task.setUser(user);
+            tasks.add(task);
+        }
+    }
+
+    @Benchmark
+    public List<ResponseTaskDTO> toResponse() {
+        List<ResponseTaskDTO> responses = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            responses.add(TaskService.toResponse(task));
+        }
+        return responses;
+    }
+}
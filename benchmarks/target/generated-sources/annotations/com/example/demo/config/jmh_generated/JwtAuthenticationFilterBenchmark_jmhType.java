@@ -0,0 +1,4 @@
+package com.example.demo.config.jmh_generated;
+public class JwtAuthenticationFilterBenchmark_jmhType extends JwtAuthenticationFilterBenchmark_jmhType_B3 {
+}
+
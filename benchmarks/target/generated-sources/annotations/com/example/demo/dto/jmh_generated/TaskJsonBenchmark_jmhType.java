@@ -0,0 +1,4 @@
+package com.example.demo.dto.jmh_generated;
+public class TaskJsonBenchmark_jmhType extends TaskJsonBenchmark_jmhType_B3 {
+}
+
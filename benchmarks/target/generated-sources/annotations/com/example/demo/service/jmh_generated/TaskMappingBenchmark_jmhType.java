@@ -0,0 +1,4 @@
+package com.example.demo.service.jmh_generated;
+public class TaskMappingBenchmark_jmhType extends TaskMappingBenchmark_jmhType_B3 {
+}
+